@@ -0,0 +1,22 @@
+package com.wwt.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link FilterBenchmark} over the implementations with a fixed fingerprint
+ * width; the packed ones, which take the width as a parameter, are in
+ * {@link PackedFilterBenchmark}.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 14:30
+ */
+public class CuckooFilterBenchmark extends FilterBenchmark {
+
+    @Param({"WWT", "WWT_BREADTH_FIRST", "WWT_BLOCKED", "GITHUB", "CONCURRENT"})
+    public Filter.Implementation implementation;
+
+    @Override
+    protected Filter create() {
+        return this.implementation.create(CAPACITY, 8);
+    }
+}
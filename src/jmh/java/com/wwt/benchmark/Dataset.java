@@ -0,0 +1,130 @@
+package com.wwt.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic keys for {@link WorkloadHarness}. Key {@code i} of a dataset is a
+ * pure function of {@code i} and the seed, so a run can be replayed exactly and
+ * keys never inserted are found by index alone. A dataset also decides which of
+ * the live keys a read picks.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 03:40
+ */
+public enum Dataset {
+
+    /**
+     * Random 64-bit ids, read uniformly.
+     */
+    UNIFORM,
+
+    /**
+     * Random 64-bit ids, read with a Zipfian skew (exponent 0.99) towards the most
+     * recently inserted keys, like a cache of recent sessions.
+     */
+    ZIPFIAN,
+
+    /**
+     * Consecutive ids 0, 1, 2, ..., read uniformly; exposes hashes that spread
+     * dense ids poorly.
+     */
+    SEQUENTIAL,
+
+    /**
+     * URL-like strings of about 200 characters, read uniformly; hashing the key
+     * dominates the cost of an operation.
+     */
+    LONG_STRING;
+
+    private static final String SEGMENT = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    public Object key(long i, long seed) {
+        switch (this) {
+            case SEQUENTIAL:
+                return i;
+            case LONG_STRING:
+                return longString(mix(i ^ seed));
+            default:
+                return mix(i ^ seed);
+        }
+    }
+
+    /**
+     * Returns how many live keys back from the newest one a read goes, in
+     * {@code [0, live)}.
+     */
+    long pick(SplittableRandom random, Zipfian zipfian, long live) {
+        if (this == ZIPFIAN) {
+            return Math.min(zipfian.next(random), live - 1);
+        }
+        return random.nextLong(live);
+    }
+
+    private static String longString(long h) {
+        StringBuilder sb = new StringBuilder(208);
+        sb.append("https://example.com/");
+        SplittableRandom random = new SplittableRandom(h);
+        while (sb.length() < 200) {
+            for (int i = 0; i < 8; i++) {
+                sb.append(SEGMENT.charAt(random.nextInt(SEGMENT.length())));
+            }
+            sb.append('/');
+        }
+        return sb.append(Long.toHexString(h)).toString();
+    }
+
+    /**
+     * Murmur3 64-bit finalizer, a bijection: distinct indices give distinct ids.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Zipfian ranks in {@code [0, n)} after Gray et al., "Quickly generating
+     * billion-record synthetic databases", as used by YCSB; rank 0 is the most
+     * frequent. Set-up is O(n), each draw O(1).
+     */
+    static final class Zipfian {
+
+        private final long n;
+        private final double theta;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+
+        Zipfian(long n, double theta) {
+            this.n = n;
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetan = zeta(n, theta);
+            double zeta2 = zeta(2, theta);
+            this.eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta2 / this.zetan);
+        }
+
+        long next(SplittableRandom random) {
+            double u = random.nextDouble();
+            double uz = u * this.zetan;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, this.theta)) {
+                return 1;
+            }
+            return Math.min(this.n - 1, (long) (this.n * Math.pow(this.eta * u - this.eta + 1, this.alpha)));
+        }
+
+        private static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.wwt.benchmark;
+
+import com.wwt.cuckoofilter.BucketLayout;
+import com.wwt.cuckoofilter.ConcurrentCuckooFilter;
+import com.wwt.cuckoofilter.CuckooFilter;
+import com.wwt.cuckoofilter.HeapBucketTable;
+import com.wwt.cuckoofilter.InsertMode;
+import com.wwt.cuckoofilter.PackedBucketTable;
+import com.wwt.cuckoofilter.SemiSortedBucketTable;
+
+/**
+ * Common view over the filter implementations being benchmarked.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 14:30
+ */
+public interface Filter {
+
+    boolean insert(Object key, double value);
+
+    double get(Object key);
+
+    boolean contains(Object key);
+
+    boolean delete(Object key);
+
+    enum Implementation {
+
+        WWT {
+            @Override
+            public Filter create(int capacity, int fingerprintBits) {
+                return wrap(new CuckooFilter(capacity));
+            }
+        },
+
+        WWT_BREADTH_FIRST {
+            @Override
+            public Filter create(int capacity, int fingerprintBits) {
+                return wrap(new CuckooFilter(capacity, InsertMode.BREADTH_FIRST));
+            }
+        },
+
+        WWT_BLOCKED {
+            @Override
+            public Filter create(int capacity, int fingerprintBits) {
+                return wrap(new CuckooFilter(new HeapBucketTable(capacity), InsertMode.RANDOM_WALK, BucketLayout.BLOCKED));
+            }
+        },
+
+        WWT_PACKED {
+            @Override
+            public Filter create(int capacity, int fingerprintBits) {
+                return wrap(new CuckooFilter(new PackedBucketTable(capacity, fingerprintBits)));
+            }
+        },
+
+        WWT_SEMI_SORTED {
+            @Override
+            public Filter create(int capacity, int fingerprintBits) {
+                return wrap(new CuckooFilter(new SemiSortedBucketTable(capacity, fingerprintBits)));
+            }
+        },
+
+        GITHUB {
+            @Override
+            public Filter create(int capacity, int fingerprintBits) {
+                final com.github.cuckoofilter.CuckooFilter filter = new com.github.cuckoofilter.CuckooFilter(capacity);
+                return new Filter() {
+                    public boolean insert(Object key, double value) {
+                        return filter.insert(key, value);
+                    }
+
+                    public double get(Object key) {
+                        return filter.get(key);
+                    }
+
+                    public boolean contains(Object key) {
+                        return filter.contains(key);
+                    }
+
+                    public boolean delete(Object key) {
+                        return filter.delete(key);
+                    }
+                };
+            }
+        },
+
+        CONCURRENT {
+            @Override
+            public Filter create(int capacity, int fingerprintBits) {
+                final ConcurrentCuckooFilter filter = new ConcurrentCuckooFilter(capacity);
+                return new Filter() {
+                    public boolean insert(Object key, double value) {
+                        return filter.insert(key, value);
+                    }
+
+                    public double get(Object key) {
+                        return filter.get(key);
+                    }
+
+                    public boolean contains(Object key) {
+                        return filter.contains(key);
+                    }
+
+                    public boolean delete(Object key) {
+                        return filter.delete(key);
+                    }
+                };
+            }
+        };
+
+        /**
+         * Creates an empty filter of {@code capacity} buckets. Only the packed
+         * implementations support fingerprint widths other than 8 bits; the
+         * others ignore {@code fingerprintBits}.
+         */
+        public abstract Filter create(int capacity, int fingerprintBits);
+
+        private static Filter wrap(final CuckooFilter filter) {
+            return new Filter() {
+                public boolean insert(Object key, double value) {
+                    return filter.insert(key, value);
+                }
+
+                public double get(Object key) {
+                    return filter.get(key);
+                }
+
+                public boolean contains(Object key) {
+                    return filter.contains(key);
+                }
+
+                public boolean delete(Object key) {
+                    return filter.delete(key);
+                }
+            };
+        }
+    }
+}
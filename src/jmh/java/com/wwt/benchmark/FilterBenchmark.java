@@ -0,0 +1,118 @@
+package com.wwt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of single-key operations on a filter filled to
+ * {@link #loadFactor}; the subclasses pick the implementations.
+ * <p>
+ * Lookups are steady-state and measured in throughput and sample-time mode.
+ * Inserts and deletes change the load, so they run as single-shot batches of
+ * {@value #BATCH} operations on a freshly filled filter, moving the load by
+ * about one percent.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 14:30
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public abstract class FilterBenchmark {
+
+    static final int CAPACITY = 1 << 16;
+    private static final int SLOTS = CAPACITY * 4;
+    private static final int BATCH = SLOTS / 100;
+
+    @Param({"0.1", "0.25", "0.5", "0.75", "0.85", "0.9", "0.95"})
+    public double loadFactor;
+
+    private Filter filter;
+    private String[] present;
+    private String[] absent;
+    private String[] fresh;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void createKeys() {
+        this.present = keys("present-", (int) (SLOTS * this.loadFactor));
+        this.absent = keys("absent-", this.present.length);
+        this.fresh = keys("fresh-", BATCH);
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        this.filter = create();
+        for (int i = 0; i < this.present.length; i++) {
+            this.filter.insert(this.present[i], i);
+        }
+        this.cursor = 0;
+    }
+
+    /**
+     * Returns an empty filter of {@link #CAPACITY} buckets.
+     */
+    protected abstract Filter create();
+
+    private static String[] keys(String prefix, int n) {
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = prefix + i;
+        }
+        return keys;
+    }
+
+    private int next(int length) {
+        int i = this.cursor;
+        this.cursor = i + 1 == length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    public double get() {
+        return this.filter.get(this.present[next(this.present.length)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    public boolean containsPresent() {
+        return this.filter.contains(this.present[next(this.present.length)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    public boolean containsAbsent() {
+        return this.filter.contains(this.absent[next(this.absent.length)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public boolean insert() {
+        return this.filter.insert(this.fresh[this.cursor++], 1.0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public boolean delete() {
+        return this.filter.delete(this.present[this.cursor++]);
+    }
+}
@@ -0,0 +1,24 @@
+package com.wwt.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link FilterBenchmark} over the bit-packed tables, crossed with the
+ * fingerprint widths they are built with.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 11:40
+ */
+public class PackedFilterBenchmark extends FilterBenchmark {
+
+    @Param({"WWT_PACKED", "WWT_SEMI_SORTED"})
+    public Filter.Implementation implementation;
+
+    @Param({"8", "12", "16"})
+    public int fingerprintBits;
+
+    @Override
+    protected Filter create() {
+        return this.implementation.create(CAPACITY, this.fingerprintBits);
+    }
+}
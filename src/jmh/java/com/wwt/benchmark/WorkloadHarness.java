@@ -0,0 +1,243 @@
+package com.wwt.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * End-to-end workload over the {@link Filter.Implementation filter implementations},
+ * for the saturation behaviour single-operation microbenchmarks do not show.
+ * For every implementation and {@link Dataset} it
+ * <ol>
+ *   <li>fills a filter to {@code load} of its slots and measures the heap it retains per key,</li>
+ *   <li>replays {@code ops} mixed reads, inserts and deletes and reports throughput
+ *       and p50/p99/p99.9 latency; inserts add new keys, deletes remove the oldest
+ *       live key and reads pick a live key as the dataset says,</li>
+ *   <li>probes the result with keys never inserted for the false-positive rate,</li>
+ *   <li>fills a fresh filter until the first failed insert for the maximum load factor.</li>
+ * </ol>
+ * Keys, values and the operation sequence come from {@code seed}, so two runs
+ * replay the same workload; only the filters' own kick choices are random.
+ * <p>
+ * Arguments are {@code name=value} pairs, e.g.
+ * <pre>
+ *   java -cp target/benchmarks.jar com.wwt.benchmark.WorkloadHarness \
+ *       implementations=WWT,GITHUB datasets=ZIPFIAN mix=90:5:5
+ * </pre>
+ * Latencies time the filter call alone, plus one {@link System#nanoTime()} pair
+ * of about 20 ns; throughput counts the whole loop, making the keys included.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 03:40
+ */
+public class WorkloadHarness {
+
+    private static final int BUCKET_SIZE = 4;
+    //从未插入的key的下标从这里开始, 与插入的key不重叠
+    private static final long ABSENT_BASE = 1L << 40;
+    private static final long MAX_LOAD_BASE = 1L << 41;
+    private static final int FPR_PROBES = 1_000_000;
+    private static final double ZIPF_THETA = 0.99;
+
+    private static volatile boolean sink;
+
+    private final int capacity;
+    private final int fingerprintBits;
+    private final double load;
+    private final int ops;
+    private final int readPercent;
+    private final int insertPercent;
+    private final long seed;
+
+    public WorkloadHarness(int capacity, int fingerprintBits, double load, int ops, int readPercent, int insertPercent, long seed) {
+        this.capacity = capacity;
+        this.fingerprintBits = fingerprintBits;
+        this.load = load;
+        this.ops = ops;
+        this.readPercent = readPercent;
+        this.insertPercent = insertPercent;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        List<Filter.Implementation> implementations = Arrays.asList(Filter.Implementation.WWT, Filter.Implementation.GITHUB);
+        List<Dataset> datasets = Arrays.asList(Dataset.values());
+        int capacity = 1 << 18;
+        int fingerprintBits = 8;
+        double load = 0.9;
+        int ops = 2_000_000;
+        int[] mix = {90, 5, 5};
+        long seed = 42;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected name=value: " + arg);
+            }
+            String name = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "implementations":
+                    implementations = new ArrayList<>();
+                    for (String s : value.split(",")) {
+                        implementations.add(Filter.Implementation.valueOf(s.trim()));
+                    }
+                    break;
+                case "datasets":
+                    datasets = new ArrayList<>();
+                    for (String s : value.split(",")) {
+                        datasets.add(Dataset.valueOf(s.trim()));
+                    }
+                    break;
+                case "capacity":
+                    capacity = Integer.parseInt(value);
+                    break;
+                case "fingerprintBits":
+                    fingerprintBits = Integer.parseInt(value);
+                    break;
+                case "load":
+                    load = Double.parseDouble(value);
+                    break;
+                case "ops":
+                    ops = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    String[] parts = value.split(":");
+                    mix = new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+                    if (mix[0] + mix[1] + mix[2] != 100) {
+                        throw new IllegalArgumentException("Mix read:insert:delete must add up to 100: " + value);
+                    }
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + name);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "capacity=%d buckets, load=%.2f, ops=%d, mix=%d:%d:%d, seed=%d%n",
+                capacity, load, ops, mix[0], mix[1], mix[2], seed);
+        System.out.printf(Locale.ROOT, "%-18s %-12s %12s %8s %8s %9s %9s %10s %10s %8s%n", "implementation", "dataset",
+                "ops/s", "p50 ns", "p99 ns", "p99.9 ns", "max load", "fpr", "heap B/key", "failed");
+        WorkloadHarness harness = new WorkloadHarness(capacity, fingerprintBits, load, ops, mix[0], mix[1], seed);
+        //先用小表跑一遍, 让JIT编译好各条路径
+        WorkloadHarness warmup = new WorkloadHarness(Math.max(1, capacity >>> 3), fingerprintBits, load, ops >>> 3, mix[0], mix[1], seed);
+        for (Filter.Implementation implementation : implementations) {
+            for (Dataset dataset : datasets) {
+                warmup.run(implementation, dataset);
+                Result r = harness.run(implementation, dataset);
+                System.out.printf(Locale.ROOT, "%-18s %-12s %12.0f %8d %8d %9d %9.4f %10.6f %10.1f %8d%n", implementation, dataset,
+                        r.throughput, r.p50, r.p99, r.p999, r.maxLoad, r.falsePositiveRate, r.heapPerKey, r.failedInserts);
+            }
+        }
+    }
+
+    Result run(Filter.Implementation implementation, Dataset dataset) {
+        Result r = new Result();
+        SplittableRandom random = new SplittableRandom(this.seed);
+        long preload = (long) (this.capacity * (long) BUCKET_SIZE * this.load);
+
+        long before = usedHeap();
+        Filter filter = implementation.create(this.capacity, this.fingerprintBits);
+        long loaded = 0;
+        for (long i = 0; i < preload; i++) {
+            if (filter.insert(dataset.key(i, this.seed), random.nextDouble())) {
+                loaded++;
+            } else {
+                r.failedInserts++;
+            }
+        }
+        r.heapPerKey = loaded == 0 ? 0 : (double) (usedHeap() - before) / loaded;
+
+        Dataset.Zipfian zipfian = dataset == Dataset.ZIPFIAN ? new Dataset.Zipfian(Math.max(1, preload), ZIPF_THETA) : null;
+        long[] latencies = new long[this.ops];
+        long next = preload;
+        long oldest = 0;
+        boolean res = false;
+        long start = System.nanoTime();
+        for (int i = 0; i < this.ops; i++) {
+            int op = random.nextInt(100);
+            long t0;
+            if (op < this.readPercent || next == oldest) {
+                Object key = dataset.key(next - 1 - dataset.pick(random, zipfian, Math.max(1, next - oldest)), this.seed);
+                t0 = System.nanoTime();
+                res ^= filter.contains(key);
+            } else if (op < this.readPercent + this.insertPercent) {
+                Object key = dataset.key(next++, this.seed);
+                double value = random.nextDouble();
+                t0 = System.nanoTime();
+                boolean inserted = filter.insert(key, value);
+                res ^= inserted;
+                if (!inserted) {
+                    r.failedInserts++;
+                }
+            } else {
+                Object key = dataset.key(oldest++, this.seed);
+                t0 = System.nanoTime();
+                res ^= filter.delete(key);
+            }
+            latencies[i] = System.nanoTime() - t0;
+        }
+        r.throughput = this.ops / ((System.nanoTime() - start) / 1e9);
+        Arrays.sort(latencies);
+        r.p50 = percentile(latencies, 0.5);
+        r.p99 = percentile(latencies, 0.99);
+        r.p999 = percentile(latencies, 0.999);
+
+        int hits = 0;
+        for (int i = 0; i < FPR_PROBES; i++) {
+            if (filter.contains(dataset.key(ABSENT_BASE + i, this.seed))) {
+                hits++;
+            }
+        }
+        r.falsePositiveRate = (double) hits / FPR_PROBES;
+        sink = res;
+
+        //新建一个表一直插到第一次失败
+        filter = implementation.create(this.capacity, this.fingerprintBits);
+        long slots = (long) this.capacity * BUCKET_SIZE;
+        long n = 0;
+        while (n < slots && filter.insert(dataset.key(MAX_LOAD_BASE + n, this.seed), 1.0)) {
+            n++;
+        }
+        r.maxLoad = (double) n / slots;
+        return r;
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.max(0, Math.ceil(q * sorted.length) - 1))];
+    }
+
+    /**
+     * Returns the heap in use after a few full collections.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static final class Result {
+
+        double throughput;
+        long p50;
+        long p99;
+        long p999;
+        double maxLoad;
+        double falsePositiveRate;
+        double heapPerKey;
+        long failedInserts;
+    }
+}
@@ -0,0 +1,63 @@
+package com.wwt.benchmark;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 13:40
+ */
+public class WorkloadHarnessTest {
+
+    @Test
+    public void keysAreReplayableAndDistinct() {
+        for (Dataset dataset : Dataset.values()) {
+            Set<Object> keys = new HashSet<>();
+            for (long i = 0; i < 10_000; i++) {
+                Object key = dataset.key(i, 42);
+                assertEquals(key, dataset.key(i, 42));
+                assertTrue(dataset + " repeats key " + i, keys.add(key));
+            }
+            //从未插入的key与插入的不重叠
+            assertFalse(keys.contains(dataset.key(1L << 40, 42)));
+        }
+        assertEquals(7L, Dataset.SEQUENTIAL.key(7, 42));
+        assertTrue(((String) Dataset.LONG_STRING.key(0, 42)).length() >= 200);
+    }
+
+    @Test
+    public void zipfianFavoursLowRanks() {
+        Dataset.Zipfian zipfian = new Dataset.Zipfian(1000, 0.99);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 100_000; i++) {
+            long rank = zipfian.next(random);
+            assertTrue(rank >= 0 && rank < 1000);
+            counts[(int) rank]++;
+        }
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[100]);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(Dataset.ZIPFIAN.pick(random, zipfian, 10) < 10);
+        }
+    }
+
+    @Test
+    public void runReportsSaneResults() {
+        WorkloadHarness harness = new WorkloadHarness(1 << 8, 8, 0.8, 20_000, 90, 5, 42);
+        for (Dataset dataset : new Dataset[]{Dataset.UNIFORM, Dataset.ZIPFIAN}) {
+            WorkloadHarness.Result r = harness.run(Filter.Implementation.WWT, dataset);
+            assertTrue(r.throughput > 0);
+            assertTrue(r.p50 <= r.p99 && r.p99 <= r.p999);
+            assertTrue("max load " + r.maxLoad, r.maxLoad > 0.8 && r.maxLoad <= 1.0);
+            assertTrue("fpr " + r.falsePositiveRate, r.falsePositiveRate > 0 && r.falsePositiveRate < 0.1);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Arrays;
+
+/**
+ * Cuckoo filter that learns from its false positives. When a lookup matched but
+ * the backing store says the key is absent, report it with
+ * {@link #reportFalsePositive(Object)} and later lookups of that key answer
+ * absent, so a hot absent key costs one backend query instead of one per lookup.
+ * <p>
+ * The colliding entry itself cannot be re-encoded: the reported key has the
+ * same fingerprint and the same pair of buckets as the entry it matched, and
+ * the table keeps nothing else of the inserted key to tell them apart. The
+ * correction is therefore kept on the query side, as the full 64-bit hash of
+ * the reported key, and checked only after a fingerprint matched. An inserted
+ * key is suppressed only if its 64-bit hash equals a reported one, and
+ * inserting a key through this filter drops its correction.
+ * <p>
+ * At most {@code maxCorrections} are kept, in an open-addressing table swept by
+ * a clock hand: a correction that suppressed a lookup since the last sweep
+ * survives it, so hot false positives stay corrected while cold ones make room.
+ * Like {@link CuckooFilter} this class is not thread-safe, and keys must be
+ * inserted through it, not through the wrapped filter.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 01:10
+ */
+public class AdaptiveCuckooFilter {
+
+    private static final long EMPTY = 0;
+
+    private final CuckooFilter filter;
+    private final HashStrategy hashStrategy;
+    private final int maxCorrections;
+    //开放寻址表, 存被纠正key的完整hash, 0表示空位
+    private final long[] corrections;
+    private final boolean[] referenced;
+    private final int mask;
+    private int count;
+    private int hand;
+
+    public AdaptiveCuckooFilter(CuckooFilter filter, int maxCorrections) {
+        if (maxCorrections <= 0) {
+            throw new IllegalArgumentException("maxCorrections must be positive: " + maxCorrections);
+        }
+        this.filter = filter;
+        this.hashStrategy = filter.hashStrategy();
+        this.maxCorrections = maxCorrections;
+        //装载率不超过1/2, 探测链很短
+        int length = CuckooFilter.tableSizeFor(maxCorrections * 2);
+        this.corrections = new long[length];
+        this.referenced = new boolean[length];
+        this.mask = length - 1;
+    }
+
+    public boolean insert(Object key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(long key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    private boolean insertHash(long h, double value) {
+        if (!this.filter.insertHash(h, value)) {
+            return false;
+        }
+        if (this.count != 0) {
+            int i = find(h);
+            if (i >= 0) {
+                remove(i);
+            }
+        }
+        return true;
+    }
+
+    public double get(Object key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    public double get(long key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    private double getHash(long h) {
+        double value = this.filter.getHash(h);
+        return value != 0.0 && corrected(h) ? 0.0 : value;
+    }
+
+    public boolean contains(Object key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean contains(long key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean containsHash(long h) {
+        return this.filter.containsHash(h) && !corrected(h);
+    }
+
+    public boolean delete(Object key) {
+        return this.filter.deleteHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean delete(long key) {
+        return this.filter.deleteHash(this.hashStrategy.hash(key));
+    }
+
+    /**
+     * Records that {@code key} was reported present but is not in the backing
+     * store, so that this filter answers absent for it from now on.
+     *
+     * @return false if the filter did not match {@code key} or it was already corrected
+     */
+    public boolean reportFalsePositive(Object key) {
+        return reportHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean reportFalsePositive(long key) {
+        return reportHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean reportHash(long h) {
+        if (!this.filter.containsHash(h) || find(h) >= 0) {
+            return false;
+        }
+        if (this.count == this.maxCorrections) {
+            evict();
+        }
+        h = h == EMPTY ? 1 : h;
+        int i = home(h);
+        while (this.corrections[i] != EMPTY) {
+            i = (i + 1) & this.mask;
+        }
+        this.corrections[i] = h;
+        this.referenced[i] = false;
+        this.count++;
+        return true;
+    }
+
+    /**
+     * Returns the number of corrections currently kept.
+     */
+    public int corrections() {
+        return this.count;
+    }
+
+    /**
+     * Drops every correction.
+     */
+    public void clearCorrections() {
+        Arrays.fill(this.corrections, EMPTY);
+        Arrays.fill(this.referenced, false);
+        this.count = 0;
+    }
+
+    public CuckooFilter filter() {
+        return this.filter;
+    }
+
+    private boolean corrected(long h) {
+        if (this.count == 0) {
+            return false;
+        }
+        int i = find(h);
+        if (i < 0) {
+            return false;
+        }
+        this.referenced[i] = true;
+        return true;
+    }
+
+    private int find(long h) {
+        h = h == EMPTY ? 1 : h;
+        for (int i = home(h); this.corrections[i] != EMPTY; i = (i + 1) & this.mask) {
+            if (this.corrections[i] == h) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int home(long h) {
+        //低位已用作bucket下标, 乘法重新打散后取高位
+        return (int) ((h * 0x9E3779B97F4A7C15L) >>> 32) & this.mask;
+    }
+
+    /**
+     * Advances the clock hand to the first correction not used since the last
+     * sweep, clearing the use bits it passes, and removes it.
+     */
+    private void evict() {
+        for (; ; ) {
+            int i = this.hand;
+            this.hand = (i + 1) & this.mask;
+            if (this.corrections[i] == EMPTY) {
+                continue;
+            }
+            if (this.referenced[i]) {
+                this.referenced[i] = false;
+                continue;
+            }
+            remove(i);
+            return;
+        }
+    }
+
+    /**
+     * Removes the entry at {@code i}, shifting later entries of its probe run
+     * back so that lookups never stop early at the hole.
+     */
+    private void remove(int i) {
+        int j = i;
+        for (; ; ) {
+            j = (j + 1) & this.mask;
+            long h = this.corrections[j];
+            if (h == EMPTY) {
+                break;
+            }
+            int home = home(h);
+            //home不在(i, j]之间的entry才能移到i
+            boolean stays = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!stays) {
+                this.corrections[i] = h;
+                this.referenced[i] = this.referenced[j];
+                i = j;
+            }
+        }
+        this.corrections[i] = EMPTY;
+        this.referenced[i] = false;
+        this.count--;
+    }
+}
@@ -0,0 +1,206 @@
+package com.wwt.cuckoofilter;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous front-end for a {@link CuckooFilter} shared by many threads,
+ * typically one virtual thread per request.
+ * <p>
+ * Callers hash their key on their own thread and enqueue it on a lock-free
+ * queue; a single owner thread drains the queue in micro-batches of up to
+ * {@value #MAX_BATCH} requests, runs them against the unsynchronized filter and
+ * completes the returned futures. No caller ever blocks on a lock, and the owner
+ * only parks when the queue stays empty.
+ * <p>
+ * Futures are completed on the owner thread, so dependent stages added with the
+ * non-{@code Async} methods of {@link CompletableFuture} run there and hold up
+ * every other caller; keep them short or use the {@code Async} variants. The
+ * wrapped filter must not be used directly until this front-end is closed.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 23:40
+ */
+public class AsyncCuckooFilter implements Closeable {
+
+    private static final int MAX_BATCH = 256;
+    //park前自旋的次数, 负载高时省去unpark的开销
+    private static final int SPINS = 128;
+
+    private static final Op<Boolean> CONTAINS = (filter, h, value) -> filter.containsHash(h);
+    private static final Op<Double> GET = (filter, h, value) -> filter.getHash(h);
+    private static final Op<Boolean> INSERT = CuckooFilter::insertHash;
+    private static final Op<Boolean> DELETE = (filter, h, value) -> filter.deleteHash(h);
+
+    private final CuckooFilter filter;
+    private final HashStrategy hashStrategy;
+    private final ConcurrentLinkedQueue<Request<?>> queue = new ConcurrentLinkedQueue<>();
+    private final Thread owner;
+    private volatile boolean parked;
+    private volatile boolean closed;
+    //owner已经排空队列退出, 之后入队的请求没人执行了
+    private volatile boolean stopped;
+
+    public AsyncCuckooFilter(CuckooFilter filter) {
+        this.filter = filter;
+        this.hashStrategy = filter.hashStrategy();
+        this.owner = new Thread(this::run, "cuckoo-filter-owner");
+        this.owner.setDaemon(true);
+        this.owner.start();
+    }
+
+    public CompletableFuture<Boolean> contains(Object key) {
+        return submit(CONTAINS, this.hashStrategy.hash(key), 0.0);
+    }
+
+    public CompletableFuture<Boolean> contains(long key) {
+        return submit(CONTAINS, this.hashStrategy.hash(key), 0.0);
+    }
+
+    public CompletableFuture<Double> get(Object key) {
+        return submit(GET, this.hashStrategy.hash(key), 0.0);
+    }
+
+    public CompletableFuture<Double> get(long key) {
+        return submit(GET, this.hashStrategy.hash(key), 0.0);
+    }
+
+    public CompletableFuture<Boolean> insert(Object key, double value) {
+        return submit(INSERT, this.hashStrategy.hash(key), value);
+    }
+
+    public CompletableFuture<Boolean> insert(long key, double value) {
+        return submit(INSERT, this.hashStrategy.hash(key), value);
+    }
+
+    public CompletableFuture<Boolean> delete(Object key) {
+        return submit(DELETE, this.hashStrategy.hash(key), 0.0);
+    }
+
+    public CompletableFuture<Boolean> delete(long key) {
+        return submit(DELETE, this.hashStrategy.hash(key), 0.0);
+    }
+
+    /**
+     * Completes every request submitted before this call, stops the owner thread
+     * and fails any later request with an {@link IllegalStateException}. Does not
+     * close the wrapped filter.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.owner);
+        if (Thread.currentThread() == this.owner) {
+            //在回调里关闭, 不能等自己退出
+            return;
+        }
+        boolean interrupted = false;
+        while (this.owner.isAlive()) {
+            try {
+                this.owner.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Op<T> op, long h, double value) {
+        Request<T> request = new Request<>(op, h, value);
+        if (this.closed) {
+            request.completeExceptionally(closedException());
+            return request;
+        }
+        this.queue.offer(request);
+        if (this.stopped) {
+            //与close()并发提交, owner已经退出, 由提交者自己把剩下的请求失败掉
+            failPending();
+        } else if (this.parked) {
+            LockSupport.unpark(this.owner);
+        }
+        return request;
+    }
+
+    private void run() {
+        Request<?>[] batch = new Request<?>[MAX_BATCH];
+        int idle = 0;
+        for (; ; ) {
+            //先读closed再排空队列: close()之前入队的请求这次一定能取到
+            boolean closing = this.closed;
+            int n = 0;
+            Request<?> request;
+            while (n < MAX_BATCH && (request = this.queue.poll()) != null) {
+                batch[n++] = request;
+            }
+            if (n > 0) {
+                for (int i = 0; i < n; i++) {
+                    batch[i].execute(this.filter);
+                    batch[i] = null;
+                }
+                idle = 0;
+            } else if (closing) {
+                break;
+            } else if (idle < SPINS) {
+                idle++;
+                Thread.onSpinWait();
+            } else {
+                //先声明要park再检查队列, 与submit中先入队再检查parked配对, 不会丢唤醒
+                this.parked = true;
+                if (this.queue.isEmpty() && !this.closed) {
+                    LockSupport.park(this);
+                }
+                this.parked = false;
+            }
+        }
+        this.stopped = true;
+        failPending();
+    }
+
+    private void failPending() {
+        Request<?> request;
+        while ((request = this.queue.poll()) != null) {
+            request.completeExceptionally(closedException());
+        }
+    }
+
+    private static IllegalStateException closedException() {
+        return new IllegalStateException("AsyncCuckooFilter is closed");
+    }
+
+    /**
+     * An operation on the filter, given the key's hash and the value to insert.
+     */
+    @FunctionalInterface
+    private interface Op<T> {
+
+        T apply(CuckooFilter filter, long h, double value);
+    }
+
+    /**
+     * A queued operation, which is also the future handed back to the caller.
+     */
+    private static final class Request<T> extends CompletableFuture<T> {
+
+        private final Op<T> op;
+        private final long h;
+        private final double value;
+
+        Request(Op<T> op, long h, double value) {
+            this.op = op;
+            this.h = h;
+            this.value = value;
+        }
+
+        void execute(CuckooFilter filter) {
+            try {
+                complete(this.op.apply(filter, this.h, this.value));
+            } catch (RuntimeException e) {
+                completeExceptionally(e);
+            }
+        }
+    }
+}
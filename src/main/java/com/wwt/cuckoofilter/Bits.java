@@ -0,0 +1,63 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * Reads and writes bit fields of up to 64 bits in a {@code long[]}, fields
+ * running from low to high bits and possibly spanning two words; and finds
+ * zero lanes in a word holding several fields side by side (SWAR), which lets a
+ * bucket be probed for a fingerprint with a handful of word operations.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 17:30
+ */
+final class Bits {
+
+    private Bits() {
+    }
+
+    /**
+     * Returns the field at {@code bitPos} whose width is given by {@code mask}.
+     */
+    static long read(long[] words, long bitPos, long mask) {
+        int word = (int) (bitPos >>> 6);
+        int shift = (int) (bitPos & 63);
+        long v = words[word] >>> shift;
+        if (shift != 0 && word + 1 < words.length) {
+            v |= words[word + 1] << (64 - shift);
+        }
+        return v & mask;
+    }
+
+    /**
+     * Returns a word with the lowest bit of each of the {@code lanes} lanes of
+     * {@code width} bits set; multiplying a field by it repeats the field in every lane.
+     */
+    static long ones(int width, int lanes) {
+        long res = 0;
+        for (int i = 0; i < lanes; i++) {
+            res |= 1L << (i * width);
+        }
+        return res;
+    }
+
+    /**
+     * Returns the lowest lane of {@code x} that is all zero, or -1 if there is none.
+     * Lanes are {@code width} bits wide; {@code low} masks all but the top bit of
+     * every lane in use and {@code high} the top bit only. Bits of {@code x} outside
+     * the fields covered by the two masks must be zero. Exact: unlike the usual
+     * {@code (x - ones) & ~x & high} test, a borrow never flags a nonzero lane.
+     */
+    static int firstZeroLane(long x, long low, long high, int width) {
+        long t = ~(((x & low) + low) | x | low) & high;
+        return t == 0 ? -1 : Long.numberOfTrailingZeros(t) / width;
+    }
+
+    static void write(long[] words, long bitPos, long mask, long value) {
+        int word = (int) (bitPos >>> 6);
+        int shift = (int) (bitPos & 63);
+        words[word] = (words[word] & ~(mask << shift)) | ((value & mask) << shift);
+        if (shift != 0 && word + 1 < words.length) {
+            int rest = 64 - shift;
+            words[word + 1] = (words[word + 1] & ~(mask >>> rest)) | ((value & mask) >>> rest);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * Where a {@link CuckooFilter} puts the alternate bucket of a fingerprint.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 21:40
+ */
+public enum BucketLayout {
+
+    /**
+     * Anywhere in the table. A lookup in a table larger than the cache pays up
+     * to two unrelated cache misses.
+     */
+    SPREAD,
+
+    /**
+     * Within an aligned block of nearby buckets, as in the vacuum filter: the
+     * block size is picked by the fingerprint from 16, 64, 256 and 8192 buckets.
+     * With the 16 fingerprint words of a {@link HeapBucketTable} filling one
+     * 64-byte cache line, a quarter of the keys have both buckets on the same or
+     * the next line and half of them within four lines, which the hardware
+     * prefetcher tends to bring in together. The larger blocks keep the reachable
+     * load factor about two points below {@link #SPREAD}.
+     */
+    BLOCKED
+}
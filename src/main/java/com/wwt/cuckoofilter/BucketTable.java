@@ -0,0 +1,196 @@
+package com.wwt.cuckoofilter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Bucket storage of a {@link CuckooFilter}. Every bucket has {@link #bucketSize()}
+ * slots, {@link #BUCKET_SIZE} unless the table was built wider or narrower, each
+ * holding a fingerprint and a value; a fingerprint of
+ * {@link #NULL_FINGERPRINT} marks an empty slot. The table also keeps the number
+ * of occupied slots so that storage which outlives the process can hand it back
+ * on reopen.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 11:05
+ */
+public abstract class BucketTable implements Closeable {
+
+    public static final int BUCKET_SIZE = 4;
+    public static final int NULL_FINGERPRINT = 0;
+    /**
+     * The most slots any table has, so slot indices and {@link #size()} fit an {@code int}.
+     */
+    public static final int MAXIMUM_SLOTS = 1 << 30;
+
+    protected final int capacity;
+    protected final int bucketSize;
+
+    protected BucketTable(int capacity) {
+        this(capacity, BUCKET_SIZE);
+    }
+
+    /**
+     * @param bucketSize slots per bucket, 2, 4 or 8
+     */
+    protected BucketTable(int capacity, int bucketSize) {
+        if (bucketSize != 2 && bucketSize != 4 && bucketSize != 8) {
+            throw new IllegalArgumentException("Bucket size must be 2, 4 or 8: " + bucketSize);
+        }
+        if (capacity <= 0 || (long) capacity * bucketSize > MAXIMUM_SLOTS) {
+            throw new IllegalArgumentException("Capacity must be in [1, " + MAXIMUM_SLOTS / bucketSize + "] buckets of "
+                    + bucketSize + " slots: " + capacity);
+        }
+        this.capacity = capacity;
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * Returns the number of buckets in this table.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of slots per bucket.
+     */
+    public int bucketSize() {
+        return this.bucketSize;
+    }
+
+    /**
+     * Returns the number of occupied slots.
+     */
+    public abstract int size();
+
+    protected abstract void addSize(int delta);
+
+    /**
+     * Returns the width of the fingerprints this table stores; fingerprints are
+     * in {@code [1, 2^fingerprintBits)}.
+     */
+    public abstract int fingerprintBits();
+
+    public abstract int fingerprint(int bucket, int slot);
+
+    public abstract double value(int bucket, int slot);
+
+    /**
+     * Overwrites a slot without changing {@link #size()}; used to swap entries during relocation.
+     * A table may reorder the slots of the bucket written, so slot indices of that
+     * bucket are only valid until its next write.
+     *
+     * @throws IllegalArgumentException if the table cannot store {@code value}, e.g. a
+     *                                  {@link ValueCodec#dictionary} without it; nothing is written then
+     */
+    public abstract void set(int bucket, int slot, int f, double value);
+
+    /**
+     * Checks that {@code value} can be stored, so an insert can fail before it
+     * moves any entry or stashes the value.
+     *
+     * @throws IllegalArgumentException if {@link #set} would reject {@code value}
+     */
+    void checkValue(double value) {
+    }
+
+    /**
+     * Returns the first slot of the bucket holding {@code f}, or -1. Passing
+     * {@link #NULL_FINGERPRINT} finds an empty slot.
+     */
+    public int indexOf(int bucket, int f) {
+        for (int i = 0; i < this.bucketSize; i++) {
+            if (fingerprint(bucket, i) == f) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isFull(int bucket) {
+        return indexOf(bucket, NULL_FINGERPRINT) < 0;
+    }
+
+    /**
+     * Stores {@code f} and {@code value} in the first empty slot of the bucket.
+     *
+     * @return false if the bucket is full
+     */
+    public boolean add(int bucket, int f, double value) {
+        int slot = indexOf(bucket, NULL_FINGERPRINT);
+        if (slot < 0) {
+            return false;
+        }
+        set(bucket, slot, f, value);
+        addSize(1);
+        return true;
+    }
+
+    /**
+     * Returns the value stored with {@code f}, or 0.0 if the bucket does not hold it.
+     */
+    public double get(int bucket, int f) {
+        int slot = indexOf(bucket, f);
+        return slot < 0 ? 0.0 : value(bucket, slot);
+    }
+
+    public boolean contains(int bucket, int f) {
+        return indexOf(bucket, f) >= 0;
+    }
+
+    /**
+     * Returns whether either of the two buckets holds {@code f}; a table may probe
+     * both at once.
+     */
+    public boolean containsEither(int bucket1, int bucket2, int f) {
+        return contains(bucket1, f) || contains(bucket2, f);
+    }
+
+    /**
+     * Empties the first slot holding {@code f}.
+     *
+     * @return false if the bucket does not hold {@code f}
+     */
+    public boolean delete(int bucket, int f) {
+        int slot = indexOf(bucket, f);
+        if (slot < 0) {
+            return false;
+        }
+        set(bucket, slot, NULL_FINGERPRINT, 0.0);
+        addSize(-1);
+        return true;
+    }
+
+    /**
+     * Empties every slot.
+     */
+    public void clear() {
+        for (int b = 0; b < this.capacity; b++) {
+            for (int s = 0; s < this.bucketSize; s++) {
+                if (fingerprint(b, s) != NULL_FINGERPRINT) {
+                    set(b, s, NULL_FINGERPRINT, 0.0);
+                }
+            }
+        }
+        addSize(-size());
+    }
+
+    /**
+     * Returns whether this table refuses writes; a filter over it then fails every
+     * insert and delete before changing anything.
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Writes pending changes to the underlying storage, if there is any.
+     */
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+}
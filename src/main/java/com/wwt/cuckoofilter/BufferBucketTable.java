@@ -0,0 +1,82 @@
+package com.wwt.cuckoofilter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link BucketTable} working in place on the regions of a loaded snapshot, see
+ * {@link CuckooFilter#readFrom(ByteBuffer)}. Fingerprints are bit-packed in
+ * little-endian 64-bit words as in {@link PackedBucketTable}, values are one
+ * {@code double} per slot, or absent if the snapshot had none.
+ * <p>
+ * The table is read-only: a write would leave the snapshot's size and checksum
+ * stale, so {@link #set} throws and a filter over it refuses inserts and deletes.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 19:30
+ */
+final class BufferBucketTable extends BucketTable {
+
+    private final int fingerprintBits;
+    private final long mask;
+    private final ByteBuffer fingerprints;
+    private final ByteBuffer values;
+    private int size;
+
+    /**
+     * @param fingerprints little-endian fingerprint words, starting at index 0
+     * @param values       little-endian values starting at index 0, or null if all values are 0.0
+     */
+    BufferBucketTable(int capacity, int bucketSize, int fingerprintBits, ByteBuffer fingerprints, ByteBuffer values, int size) {
+        super(capacity, bucketSize);
+        this.fingerprintBits = fingerprintBits;
+        this.mask = (1L << fingerprintBits) - 1;
+        this.fingerprints = fingerprints;
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    protected void addSize(int delta) {
+        this.size += delta;
+    }
+
+    @Override
+    public int fingerprintBits() {
+        return this.fingerprintBits;
+    }
+
+    @Override
+    public int fingerprint(int bucket, int slot) {
+        long bitPos = ((long) bucket * this.bucketSize + slot) * this.fingerprintBits;
+        int word = (int) (bitPos >>> 6);
+        int shift = (int) (bitPos & 63);
+        long v = this.fingerprints.getLong(word << 3) >>> shift;
+        if (shift + this.fingerprintBits > 64) {
+            v |= this.fingerprints.getLong((word + 1) << 3) << (64 - shift);
+        }
+        return (int) (v & this.mask);
+    }
+
+    @Override
+    public double value(int bucket, int slot) {
+        if (this.values == null) {
+            return 0.0;
+        }
+        return this.values.getDouble((bucket * this.bucketSize + slot) << 3);
+    }
+
+    @Override
+    public void set(int bucket, int slot, int f, double value) {
+        throw new UnsupportedOperationException("Snapshot view is read-only");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
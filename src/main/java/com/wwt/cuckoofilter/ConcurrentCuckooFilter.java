@@ -0,0 +1,403 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe variant of {@link CuckooFilter} using the same fingerprints and
+ * bucket indices.
+ * <p>
+ * Buckets are split into contiguous ranges (stripes). Writers lock the stripes
+ * of the buckets they change, in stripe order, and bump the stripe's version to
+ * odd while changing it and back to even afterwards. Readers take no lock: they
+ * read the versions of both candidate buckets, probe, and retry if either
+ * version was odd or moved in the meantime.
+ * <p>
+ * Relocation first searches a cuckoo path without changing anything, then
+ * moves entries from the end of the path backwards, each move copying an entry
+ * into its alternate bucket and clearing the old slot under one version bump.
+ * An entry is therefore never missing from both of its buckets, and readers
+ * keep running while a long kick chain is being applied.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 13:40
+ */
+public class ConcurrentCuckooFilter {
+
+    private static final int MAX_NUM_KICKS = 500;
+    private static final int MAX_PATH_ATTEMPTS = 8;
+    private static final int BUCKET_SIZE = BucketTable.BUCKET_SIZE;
+    private static final int NULL_FINGERPRINT = BucketTable.NULL_FINGERPRINT;
+    //每个stripe的version和size占一个cache line, 避免false sharing
+    private static final int STRIPE_STRIDE = 16;
+    private static final int COUNT_OFFSET = 1;
+
+    private final int capacity;
+    //每个bucket的四个一字节fingerprint打包成一个int
+    private final AtomicIntegerArray fingerprints;
+    private final AtomicLongArray values;
+    private final ReentrantLock[] locks;
+    private final AtomicIntegerArray stripes;
+    private final int stripeShift;
+    private final HashStrategy hashStrategy;
+
+    public ConcurrentCuckooFilter(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    public ConcurrentCuckooFilter(int capacity, int concurrencyLevel) {
+        this(capacity, concurrencyLevel, HashStrategy.murmur());
+    }
+
+    /**
+     * @param concurrencyLevel the number of lock stripes, rounded up to a power of two
+     *                         and capped at the number of buckets
+     */
+    public ConcurrentCuckooFilter(int capacity, int concurrencyLevel, HashStrategy hashStrategy) {
+        capacity = CuckooFilter.checkCapacity(capacity);
+        int slots = capacity * BUCKET_SIZE;
+        int stripeCount = Math.min(CuckooFilter.tableSizeFor(concurrencyLevel), capacity);
+        this.capacity = capacity;
+        this.fingerprints = new AtomicIntegerArray(capacity);
+        this.values = new AtomicLongArray(slots);
+        this.locks = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+        this.stripes = new AtomicIntegerArray(stripeCount * STRIPE_STRIDE);
+        this.stripeShift = Integer.numberOfTrailingZeros(capacity / stripeCount);
+        this.hashStrategy = hashStrategy;
+    }
+
+    public boolean insert(Object key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(long key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    boolean insertHash(long h, double value) {
+
+        int f = CuckooFilter.fingerprintOf(h, 8);
+        int p1 = (int) h & (this.capacity - 1);
+        int p2 = altIndex(p1, f);
+
+        for (int attempt = 0; attempt < MAX_PATH_ATTEMPTS; attempt++) {
+            if (addToEither(p1, p2, f, value)) {
+                return true;
+            }
+            int[] path = findPath(ThreadLocalRandom.current().nextBoolean() ? p1 : p2);
+            if (path != null && applyPath(path) && addAt(path[0], path[1], f, value)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public double get(Object key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    public double get(long key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    private double getHash(long h) {
+
+        int f = CuckooFilter.fingerprintOf(h, 8);
+        int p1 = (int) h & (this.capacity - 1);
+        int p2 = altIndex(p1, f);
+        int s1 = stripe(p1) * STRIPE_STRIDE;
+        int s2 = stripe(p2) * STRIPE_STRIDE;
+
+        for (;;) {
+            int v1 = this.stripes.get(s1);
+            int v2 = this.stripes.get(s2);
+            if (((v1 | v2) & 1) != 0) {
+                continue;
+            }
+            int slot = slotOf(this.fingerprints.get(p1), f);
+            double value = slot >= 0
+                    ? Double.longBitsToDouble(this.values.get(p1 * BUCKET_SIZE + slot)) : getIn(p2, f);
+            if (this.stripes.get(s1) == v1 && this.stripes.get(s2) == v2) {
+                return value;
+            }
+        }
+    }
+
+    public boolean contains(Object key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean contains(long key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean containsHash(long h) {
+
+        int f = CuckooFilter.fingerprintOf(h, 8);
+        int p1 = (int) h & (this.capacity - 1);
+        int p2 = altIndex(p1, f);
+        int s1 = stripe(p1) * STRIPE_STRIDE;
+        int s2 = stripe(p2) * STRIPE_STRIDE;
+
+        for (;;) {
+            int v1 = this.stripes.get(s1);
+            int v2 = this.stripes.get(s2);
+            if (((v1 | v2) & 1) != 0) {
+                continue;
+            }
+            boolean found = slotOf(this.fingerprints.get(p1), f) >= 0 || slotOf(this.fingerprints.get(p2), f) >= 0;
+            if (this.stripes.get(s1) == v1 && this.stripes.get(s2) == v2) {
+                return found;
+            }
+        }
+    }
+
+    /**
+     * Deletes one fingerprint of {@code key}, which must have been inserted before.
+     *
+     * @return true if a matching fingerprint was found and removed
+     */
+    public boolean delete(Object key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean delete(long key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean deleteHash(long h) {
+
+        int f = CuckooFilter.fingerprintOf(h, 8);
+        int p1 = (int) h & (this.capacity - 1);
+        int p2 = altIndex(p1, f);
+        int s1 = stripe(p1);
+        int s2 = stripe(p2);
+
+        lock(s1, s2);
+        try {
+            return deleteLocked(p1, f) || deleteLocked(p2, f);
+        } finally {
+            unlock(s1, s2);
+        }
+    }
+
+    /**
+     * Returns the number of fingerprints in this filter. Concurrent inserts may or
+     * may not be counted.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < this.locks.length; i++) {
+            size += this.stripes.get(i * STRIPE_STRIDE + COUNT_OFFSET);
+        }
+        return size;
+    }
+
+    public HashStrategy hashStrategy() {
+        return this.hashStrategy;
+    }
+
+    private boolean addToEither(int p1, int p2, int f, double value) {
+        int s1 = stripe(p1);
+        int s2 = stripe(p2);
+        lock(s1, s2);
+        try {
+            return addLocked(p1, f, value) || addLocked(p2, f, value);
+        } finally {
+            unlock(s1, s2);
+        }
+    }
+
+    private boolean addAt(int bucket, int slot, int f, double value) {
+        int s = stripe(bucket);
+        this.locks[s].lock();
+        try {
+            if (lane(this.fingerprints.get(bucket), slot) != NULL_FINGERPRINT) {
+                return false;
+            }
+            beginWrite(s);
+            write(bucket, slot, f, value);
+            endWrite(s);
+            this.stripes.incrementAndGet(s * STRIPE_STRIDE + COUNT_OFFSET);
+            return true;
+        } finally {
+            this.locks[s].unlock();
+        }
+    }
+
+    private boolean addLocked(int bucket, int f, double value) {
+        int slot = slotOf(this.fingerprints.get(bucket), NULL_FINGERPRINT);
+        if (slot < 0) {
+            return false;
+        }
+        int s = stripe(bucket);
+        beginWrite(s);
+        write(bucket, slot, f, value);
+        endWrite(s);
+        this.stripes.incrementAndGet(s * STRIPE_STRIDE + COUNT_OFFSET);
+        return true;
+    }
+
+    private boolean deleteLocked(int bucket, int f) {
+        int slot = slotOf(this.fingerprints.get(bucket), f);
+        if (slot < 0) {
+            return false;
+        }
+        int s = stripe(bucket);
+        beginWrite(s);
+        write(bucket, slot, NULL_FINGERPRINT, 0.0);
+        endWrite(s);
+        this.stripes.decrementAndGet(s * STRIPE_STRIDE + COUNT_OFFSET);
+        return true;
+    }
+
+    /**
+     * Walks a random cuckoo path from {@code bucket} without moving anything.
+     *
+     * @return {@code [b0, s0, f0, b1, s1, f1, ..., bn, sn, 0]}: entry {@code fi} in slot
+     * {@code si} of bucket {@code bi} moves to slot {@code si+1} of bucket {@code bi+1},
+     * the last slot being empty; or null if the walk ran into itself or found no empty
+     * slot within {@value #MAX_NUM_KICKS} kicks
+     */
+    private int[] findPath(int bucket) {
+
+        Random random = ThreadLocalRandom.current();
+        int[] path = new int[3 * (MAX_NUM_KICKS + 1)];
+        int length = 0;
+
+        for (int i = 0; i < MAX_NUM_KICKS; i++) {
+            int slot = random.nextInt(BUCKET_SIZE);
+            for (int j = 0; j < length; j += 3) {
+                if (path[j] == bucket && path[j + 1] == slot) {
+                    //走回了路径上已有的slot, 放弃这条路径
+                    return null;
+                }
+            }
+            int f = lane(this.fingerprints.get(bucket), slot);
+            path[length++] = bucket;
+            path[length++] = slot;
+            path[length++] = f;
+            if (f == NULL_FINGERPRINT) {
+                return trim(path, length);
+            }
+
+            bucket = altIndex(bucket, f);
+            int empty = slotOf(this.fingerprints.get(bucket), NULL_FINGERPRINT);
+            if (empty >= 0) {
+                path[length++] = bucket;
+                path[length++] = empty;
+                path[length++] = NULL_FINGERPRINT;
+                return trim(path, length);
+            }
+        }
+
+        return null;
+    }
+
+    private static int[] trim(int[] path, int length) {
+        int[] res = new int[length];
+        System.arraycopy(path, 0, res, 0, length);
+        return res;
+    }
+
+    /**
+     * Moves the entries along {@code path} from its end backwards.
+     *
+     * @return false if another writer changed the path first, leaving it partly applied
+     */
+    private boolean applyPath(int[] path) {
+        for (int i = path.length - 6; i >= 0; i -= 3) {
+            if (!move(path[i], path[i + 1], path[i + 2], path[i + 3], path[i + 4])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean move(int from, int fromSlot, int f, int to, int toSlot) {
+        int s1 = stripe(from);
+        int s2 = stripe(to);
+        lock(s1, s2);
+        try {
+            if (lane(this.fingerprints.get(from), fromSlot) != f
+                    || lane(this.fingerprints.get(to), toSlot) != NULL_FINGERPRINT) {
+                return false;
+            }
+            beginWrite(s1);
+            if (s2 != s1) {
+                beginWrite(s2);
+            }
+            write(to, toSlot, f, Double.longBitsToDouble(this.values.get(from * BUCKET_SIZE + fromSlot)));
+            write(from, fromSlot, NULL_FINGERPRINT, 0.0);
+            if (s2 != s1) {
+                endWrite(s2);
+                this.stripes.decrementAndGet(s1 * STRIPE_STRIDE + COUNT_OFFSET);
+                this.stripes.incrementAndGet(s2 * STRIPE_STRIDE + COUNT_OFFSET);
+            }
+            endWrite(s1);
+            return true;
+        } finally {
+            unlock(s1, s2);
+        }
+    }
+
+    private void write(int bucket, int slot, int f, double value) {
+        int shift = slot << 3;
+        int word = this.fingerprints.get(bucket);
+        this.fingerprints.set(bucket, (word & ~(0xFF << shift)) | (f << shift));
+        this.values.set(bucket * BUCKET_SIZE + slot, Double.doubleToRawLongBits(value));
+    }
+
+    private double getIn(int bucket, int f) {
+        int slot = slotOf(this.fingerprints.get(bucket), f);
+        return slot < 0 ? 0.0 : Double.longBitsToDouble(this.values.get(bucket * BUCKET_SIZE + slot));
+    }
+
+    private static int slotOf(int word, int f) {
+        long x = (word ^ (f & 0xFF) * 0x01010101) & 0xFFFFFFFFL;
+        return Bits.firstZeroLane(x, 0x7F7F7F7FL, 0x80808080L, 8);
+    }
+
+    private static int lane(int word, int slot) {
+        return (word >>> (slot << 3)) & 0xFF;
+    }
+
+    private void beginWrite(int stripe) {
+        this.stripes.incrementAndGet(stripe * STRIPE_STRIDE);
+    }
+
+    private void endWrite(int stripe) {
+        this.stripes.incrementAndGet(stripe * STRIPE_STRIDE);
+    }
+
+    private void lock(int s1, int s2) {
+        if (s1 == s2) {
+            this.locks[s1].lock();
+        } else {
+            this.locks[Math.min(s1, s2)].lock();
+            this.locks[Math.max(s1, s2)].lock();
+        }
+    }
+
+    private void unlock(int s1, int s2) {
+        this.locks[s1].unlock();
+        if (s2 != s1) {
+            this.locks[s2].unlock();
+        }
+    }
+
+    private int stripe(int bucket) {
+        return bucket >>> this.stripeShift;
+    }
+
+    private int altIndex(int p, int f) {
+        return p ^ (CuckooFilter.mix(f) & (this.capacity - 1));
+    }
+}
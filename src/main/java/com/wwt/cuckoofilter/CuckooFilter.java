@@ -1,14 +1,28 @@
 package com.wwt.cuckoofilter;
 
-import java.util.Arrays;
-import java.util.Objects;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @Author: wwt
  * @Date: 2020/11/27 20:52
  */
-public class CuckooFilter {
+public class CuckooFilter implements Closeable {
 
     public static void main(String[] args) {
         CuckooFilter cuckooFilter = new CuckooFilter(1 << 4);
@@ -18,288 +32,829 @@ public class CuckooFilter {
         System.out.println(cuckooFilter.get("ksdjkf"));
     }
 
-    private Bucket[] buckets;
+    private BucketTable table;
     private int capacity;
-    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private int fingerprintBits;
+    //四个slot一个bucket时最多的bucket数, 所有按bucket数建表的入口都用这个上限
+    static final int MAXIMUM_CAPACITY = BucketTable.MAXIMUM_SLOTS / BucketTable.BUCKET_SIZE;
     private static final int MAX_NUM_KICKS = 500;
-    private static final int FINGERPRINT_LEN = 1;
+    //批量操作每轮先算好这么多key的fingerprint和bucket位置, 再集中探测
+    private static final int BATCH_SIZE = 64;
     private Random random;
-    private int size;
+    //记录一次relocate中被踢的位置, 失败时用来回滚
+    private final int[] kickBuckets = new int[MAX_NUM_KICKS];
+    private final int[] kickFingerprints = new int[MAX_NUM_KICKS];
+    //只在BREADTH_FIRST模式下使用
+    private final CuckooPath path;
+    private final Stash stash;
+    private final boolean readOnly;
+    private final FilterMetrics metrics;
+    private final BucketLayout layout;
+    private final HashStrategy hashStrategy;
+    //按fingerprint低2位选择对偶bucket的范围
+    private static final int[] BLOCK_SIZES = {16, 64, 256, 8192};
+    private final int[] altMasks = new int[BLOCK_SIZES.length];
 
     public CuckooFilter(int capacity) {
+        this(capacity, InsertMode.RANDOM_WALK);
+    }
+
+    public CuckooFilter(int capacity, InsertMode mode) {
+        this(new HeapBucketTable(checkCapacity(capacity)), mode);
+    }
+
+    /**
+     * Creates a filter over an existing table, keeping whatever it already holds.
+     * The table capacity must be a power of two.
+     */
+    public CuckooFilter(BucketTable table) {
+        this(table, InsertMode.RANDOM_WALK);
+    }
+
+    public CuckooFilter(BucketTable table, InsertMode mode) {
+        this(table, mode, BucketLayout.SPREAD);
+    }
+
+    /**
+     * @param layout where alternate buckets go; a filter must always be used with the
+     *               layout its table was filled with
+     */
+    public CuckooFilter(BucketTable table, InsertMode mode, BucketLayout layout) {
+        this(table, mode, layout, HashStrategy.murmur());
+    }
+
+    /**
+     * @param hashStrategy how keys are hashed; like the layout it must stay the same
+     *                     for the lifetime of the table's contents
+     */
+    public CuckooFilter(BucketTable table, InsertMode mode, BucketLayout layout, HashStrategy hashStrategy) {
+        if (Integer.bitCount(table.capacity()) != 1) {
+            throw new IllegalArgumentException("Table capacity must be a power of two: " + table.capacity());
+        }
         this.random = new Random();
-        capacity = tableSizeFor(capacity);
-        this.capacity = capacity;
-        this.size = 0;
-        this.buckets = new Bucket[capacity];
-        for (int i = 0; i < capacity; i++) {
-            this.buckets[i] = new Bucket();
+        this.capacity = table.capacity();
+        this.fingerprintBits = table.fingerprintBits();
+        this.table = table;
+        this.readOnly = table.isReadOnly();
+        this.path = mode == InsertMode.BREADTH_FIRST ? new CuckooPath() : null;
+        this.stash = mode == InsertMode.BREADTH_FIRST ? new Stash() : null;
+        this.metrics = new FilterMetrics(this, !this.readOnly);
+        this.layout = layout;
+        this.hashStrategy = hashStrategy;
+        for (int i = 0; i < BLOCK_SIZES.length; i++) {
+            this.altMasks[i] = layout == BucketLayout.BLOCKED
+                    ? Math.min(BLOCK_SIZES[i], this.capacity) - 1 : this.capacity - 1;
         }
     }
 
+    /**
+     * Returns a builder that sizes a filter from the expected number of keys, a
+     * target false-positive rate and a memory budget.
+     */
+    public static CuckooFilterBuilder builder() {
+        return new CuckooFilterBuilder();
+    }
+
+    /**
+     * Creates an empty filter whose buckets live off-heap in a new file.
+     * Call {@link #close()} when done; the file can then be {@link #open(Path) reopened}.
+     */
+    public static CuckooFilter create(Path file, int capacity) throws IOException {
+        return create(file, capacity, BucketLayout.SPREAD);
+    }
+
+    public static CuckooFilter create(Path file, int capacity, BucketLayout layout) throws IOException {
+        MappedBucketTable table = MappedBucketTable.create(file, checkCapacity(capacity), layout);
+        return new CuckooFilter(table, InsertMode.RANDOM_WALK, layout);
+    }
+
+    /**
+     * Reopens a filter file written by {@link #create(Path, int)}. Only the file
+     * is mapped, no key is re-inserted.
+     */
+    public static CuckooFilter open(Path file) throws IOException {
+        MappedBucketTable table = MappedBucketTable.open(file);
+        return new CuckooFilter(table, InsertMode.RANDOM_WALK, table.layout());
+    }
+
+    /**
+     * Writes a snapshot of this filter: a versioned header recording capacity,
+     * fingerprint bits, bucket size and hash strategy, the bit-packed fingerprints,
+     * the values unless they are all 0.0, and a CRC32 checksum.
+     * The stream is not closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Snapshot.write(this, Channels.newChannel(out));
+    }
+
+    public void writeTo(WritableByteChannel out) throws IOException {
+        Snapshot.write(this, out);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo(OutputStream)} into a new heap
+     * filter, consuming exactly the snapshot's bytes.
+     *
+     * @throws IOException if the data is not a snapshot, is truncated, fails its
+     *                     checksum or was written with a custom hash strategy
+     */
+    public static CuckooFilter readFrom(InputStream in) throws IOException {
+        return Snapshot.read(Channels.newChannel(in), null);
+    }
+
+    public static CuckooFilter readFrom(ReadableByteChannel in) throws IOException {
+        return Snapshot.read(in, null);
+    }
+
+    /**
+     * Reads a snapshot written by a filter with a custom {@link HashStrategy}; a
+     * {@link HashStrategy#murmur(long) murmur} strategy is restored without it.
+     *
+     * @throws IOException if the snapshot was written with a strategy of another id
+     */
+    public static CuckooFilter readFrom(InputStream in, HashStrategy hashStrategy) throws IOException {
+        return Snapshot.read(Channels.newChannel(in), hashStrategy);
+    }
+
+    public static CuckooFilter readFrom(ReadableByteChannel in, HashStrategy hashStrategy) throws IOException {
+        return Snapshot.read(in, hashStrategy);
+    }
+
+    /**
+     * Loads a snapshot starting at the position of {@code buffer} without copying
+     * its slots: the filter reads and writes the buffer in place, so a
+     * {@link java.nio.channels.FileChannel#map mapped} snapshot file is served
+     * straight from the page cache. Only the checksum pass touches every byte.
+     * The filter is a read-only view: the snapshot header would go stale on a write,
+     * so insert, delete and clear throw {@link UnsupportedOperationException}.
+     */
+    public static CuckooFilter readFrom(ByteBuffer buffer) throws IOException {
+        return Snapshot.read(buffer, null);
+    }
+
+    public static CuckooFilter readFrom(ByteBuffer buffer, HashStrategy hashStrategy) throws IOException {
+        return Snapshot.read(buffer, hashStrategy);
+    }
+
+    /**
+     * Inserts a fingerprint of {@code key} with {@code value}.
+     *
+     * @return false if no free slot was found within {@value #MAX_NUM_KICKS} kicks; the
+     * filter is then left exactly as it was
+     */
     public boolean insert(Object key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(long key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(CharSequence key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(byte[] key, int offset, int length, double value) {
+        return insertHash(this.hashStrategy.hash(key, offset, length), value);
+    }
+
+    public boolean insert(ByteBuffer key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    boolean insertHash(long h, double value) {
 
-        Fingerprint f = fingerprint(key, FINGERPRINT_LEN);
-        int p1 = hash(key);
-        int p2 = p1 ^ hash(f);
+        long start = this.metrics.startSample();
+        int f = fingerprintOf(h, this.fingerprintBits);
+        int p1 = index(h);
 
-        if (!this.buckets[p1].isFull() && this.buckets[p1].add(f, value)) {
-            this.size++;
+        boolean res = insert(f, p1, altIndex(p1, f), value);
+        this.metrics.endSample(FilterMetrics.INSERT, start);
+        return res;
+    }
+
+    private boolean insert(int f, int p1, int p2, double value) {
+        checkWritable();
+        //值存不下时在挪动任何entry之前失败, 也不能进stash
+        this.table.checkValue(value);
+
+        if (this.table.add(p1, f, value) || this.table.add(p2, f, value)) {
+            this.metrics.recordInsert(0);
             return true;
         }
 
-        if (!this.buckets[p2].isFull() && this.buckets[p2].add(f, value)) {
-            this.size++;
-            return true;
+        if (this.path == null) {
+            return relocateAndInsert(p1, p2, f, value);
         }
 
-        return relocateAndInsert(p1, p2, f, value);
+        if (this.path.insert(this, this.table, p1, p2, f, value)) {
+            this.metrics.recordInsert(this.path.length());
+            return true;
+        }
+        if (this.stash.add(p1, f, value)) {
+            this.metrics.recordStashed();
+            return true;
+        }
+        this.metrics.recordFailed();
+        return false;
     }
 
     public double get(Object key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
 
-        Fingerprint f = fingerprint(key, FINGERPRINT_LEN);
-        int p1 = hash(key);
-        int p2 = p1 ^ hash(f);
+    public double get(long key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
 
-        return Math.max(this.buckets[p1].get(f), this.buckets[p2].get(f));
+    public double get(CharSequence key) {
+        return getHash(this.hashStrategy.hash(key));
     }
 
-    public boolean contains(String key) {
+    public double get(byte[] key, int offset, int length) {
+        return getHash(this.hashStrategy.hash(key, offset, length));
+    }
 
-        Fingerprint f = fingerprint(key, FINGERPRINT_LEN);
-        int p1 = hash(key);
-        int p2 = p1 ^ hash(f);
+    public double get(ByteBuffer key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
 
-        return this.buckets[p1].contains(f) || this.buckets[p2].contains(f);
+    double getHash(long h) {
+        return getHash(h, 0.0);
     }
 
-    private boolean relocateAndInsert(int p1, int p2, Fingerprint f, double value) {
+    /**
+     * Like {@link #getHash(long)}, but returns {@code absent} if no entry matches,
+     * so a caller searching several filters learns both in one probe.
+     */
+    double getHash(long h, double absent) {
 
-        boolean flag = this.random.nextBoolean();
-        int replacedBucketPosition = flag ? p1 : p2;
+        long start = this.metrics.startSample();
+        int f = fingerprintOf(h, this.fingerprintBits);
+        int p1 = index(h);
+        int p2 = altIndex(p1, f);
 
-        for (int i = 0; i < MAX_NUM_KICKS; i++) {
-            //随机得到被替换bucket中slot的位置
-            int replacedSlotPosition = this.random.nextInt(Bucket.BUCKET_SIZE);
-            //获取被替换slot中的key和value
-            Fingerprint replacedF = this.buckets[replacedBucketPosition].slots[replacedSlotPosition].getFingerprint();
-            double replaceValue = this.buckets[replacedBucketPosition].slots[replacedSlotPosition].getValue();
-            //将f和value插入带替换slot
-            this.buckets[replacedBucketPosition].slots[replacedSlotPosition].setFingerprint(f);
-            this.buckets[replacedBucketPosition].slots[replacedSlotPosition].setValue(value);
+        double value = valueOf(p1, p2, f, absent);
+        this.metrics.endSample(FilterMetrics.LOOKUP, start);
+        return value;
+    }
 
-            //获取被替换f的对偶位置
-            replacedBucketPosition = replacedSlotPosition ^ hash(replacedF);
+    /**
+     * Returns the value of the entry {@code h} matches, like {@link #getHash} but
+     * without sampling metrics.
+     */
+    double valueHash(long h) {
+        int f = fingerprintOf(h, this.fingerprintBits);
+        int p1 = index(h);
+        return valueOf(p1, altIndex(p1, f), f, 0.0);
+    }
 
-            if (!this.buckets[replacedBucketPosition].isFull() && this.buckets[replacedBucketPosition].add(replacedF, replaceValue)) {
-                this.size++;
-                return true;
-            }
+    /**
+     * Returns the value of the first entry holding {@code f}: in {@code p1}, then
+     * {@code p2}, then the stash; or {@code absent} if there is none. Reading the
+     * matching slot, not merging the buckets, keeps negative values.
+     */
+    private double valueOf(int p1, int p2, int f, double absent) {
+        int slot = this.table.indexOf(p1, f);
+        if (slot >= 0) {
+            return this.table.value(p1, slot);
+        }
+        slot = this.table.indexOf(p2, f);
+        if (slot >= 0) {
+            return this.table.value(p2, slot);
         }
+        return stashed() ? this.stash.get(p1, p2, f, absent) : absent;
+    }
 
-        return false;
+    public boolean contains(Object key) {
+        return containsHash(this.hashStrategy.hash(key));
     }
 
-    public static class Bucket{
+    public boolean contains(long key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
 
-        private Slot[] slots;
-        public static final int BUCKET_SIZE = 4;
-        public static final byte NULL_FINGERPRINT = 0;
+    public boolean contains(CharSequence key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
 
-        public Bucket() {
-            this.slots = new Slot[BUCKET_SIZE];
-            for (int i = 0; i < BUCKET_SIZE; i++) {
-                this.slots[i] = new Slot();
-            }
-        }
+    public boolean contains(byte[] key, int offset, int length) {
+        return containsHash(this.hashStrategy.hash(key, offset, length));
+    }
 
-        public boolean isFull() {
+    public boolean contains(ByteBuffer key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
 
-            for (int i = 0; i < BUCKET_SIZE; i++) {
-                if (this.slots[i].getFlag()) {
-                    return false;
-                }
-            }
+    boolean containsHash(long h) {
+
+        long start = this.metrics.startSample();
+        int f = fingerprintOf(h, this.fingerprintBits);
+        int p1 = index(h);
+        int p2 = altIndex(p1, f);
+
+        boolean res = this.table.containsEither(p1, p2, f)
+                || stashed() && this.stash.contains(p1, p2, f);
+        this.metrics.endSample(FilterMetrics.LOOKUP, start);
+        return res;
+    }
 
+    /**
+     * Replaces the value of one entry matching the key hash {@code h}, if there is one.
+     */
+    boolean setValueHash(long h, double value) {
+        checkWritable();
+        int f = fingerprintOf(h, this.fingerprintBits);
+        int p1 = index(h);
+        int p2 = altIndex(p1, f);
+        int s = this.table.indexOf(p1, f);
+        if (s >= 0) {
+            this.table.set(p1, s, f, value);
+            return true;
+        }
+        s = this.table.indexOf(p2, f);
+        if (s >= 0) {
+            this.table.set(p2, s, f, value);
             return true;
         }
+        return stashed() && this.stash.set(p1, p2, f, value);
+    }
+
+    private boolean stashed() {
+        return this.stash != null && this.stash.size() != 0;
+    }
 
-        public boolean add(Fingerprint key, double value) {
+    //stash在堆上, 只靠表的set抛异常拦不住写进stash的插入
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("Filter is a read-only view of its table");
+        }
+    }
 
-            for (int i = 0; i < BUCKET_SIZE; i++) {
-                if (this.slots[i].getFlag()) {
-                    this.slots[i].setFingerprint(key);
-                    this.slots[i].setFlag(false);
-                    this.slots[i].setValue(value);
-                    return true;
+    /**
+     * Batch form of {@link #contains(Object)}.
+     *
+     * @return a set with bit {@code i} set if {@code keys[i]} may be in the filter
+     */
+    public BitSet containsAll(Object[] keys) {
+
+        BitSet res = new BitSet(keys.length);
+        int[] fs = new int[BATCH_SIZE];
+        int[] p1s = new int[BATCH_SIZE];
+        int[] p2s = new int[BATCH_SIZE];
+
+        for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+            int n = hashBatch(keys, start, fs, p1s, p2s);
+            //两个bucket一起探测, 不短路, 让各个key的内存访问可以重叠
+            for (int i = 0; i < n; i++) {
+                if (this.table.containsEither(p1s[i], p2s[i], fs[i])
+                        || stashed() && this.stash.contains(p1s[i], p2s[i], fs[i])) {
+                    res.set(start + i);
                 }
             }
-
-            return false;
         }
 
-        public double get(Fingerprint f) {
+        return res;
+    }
 
-            for (int i = 0; i < BUCKET_SIZE; i++) {
-                if (this.slots[i].getFingerprint().equals(f)) {
-                    return this.slots[i].getValue();
-                }
+    public BitSet containsAll(Collection<?> keys) {
+        return containsAll(keys.toArray());
+    }
+
+    /**
+     * Batch form of {@link #get(Object)}.
+     *
+     * @return the value of {@code keys[i]} at index {@code i}, 0.0 where it is absent
+     */
+    public double[] getAll(Object[] keys) {
+
+        double[] res = new double[keys.length];
+        int[] fs = new int[BATCH_SIZE];
+        int[] p1s = new int[BATCH_SIZE];
+        int[] p2s = new int[BATCH_SIZE];
+
+        for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+            int n = hashBatch(keys, start, fs, p1s, p2s);
+            for (int i = 0; i < n; i++) {
+                res[start + i] = valueOf(p1s[i], p2s[i], fs[i], 0.0);
             }
+        }
 
-            return 0.0;
+        return res;
+    }
+
+    public double[] getAll(Collection<?> keys) {
+        return getAll(keys.toArray());
+    }
+
+    /**
+     * Batch form of {@link #insert(Object, double)}, inserting {@code keys[i]} with {@code values[i]}.
+     *
+     * @return a set with bit {@code i} set if {@code keys[i]} was inserted
+     */
+    public BitSet insertAll(Object[] keys, double[] values) {
+
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length: " + keys.length + " != " + values.length);
         }
 
-        public boolean contains(Fingerprint f) {
+        BitSet res = new BitSet(keys.length);
+        int[] fs = new int[BATCH_SIZE];
+        int[] p1s = new int[BATCH_SIZE];
+        int[] p2s = new int[BATCH_SIZE];
 
-            for (int i = 0; i < BUCKET_SIZE; i++) {
-                if (this.slots[i].getFingerprint().equals(f)) {
-                    return true;
+        for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+            int n = hashBatch(keys, start, fs, p1s, p2s);
+            for (int i = 0; i < n; i++) {
+                if (insert(fs[i], p1s[i], p2s[i], values[start + i])) {
+                    res.set(start + i);
                 }
             }
+        }
 
-            return false;
+        return res;
+    }
+
+    /**
+     * Computes fingerprints and both bucket positions of up to {@link #BATCH_SIZE}
+     * keys starting at {@code start}.
+     *
+     * @return the number of keys hashed
+     */
+    private int hashBatch(Object[] keys, int start, int[] fs, int[] p1s, int[] p2s) {
+        int n = Math.min(BATCH_SIZE, keys.length - start);
+        for (int i = 0; i < n; i++) {
+            long h = this.hashStrategy.hash(keys[start + i]);
+            fs[i] = fingerprintOf(h, this.fingerprintBits);
+            p1s[i] = index(h);
+            p2s[i] = altIndex(p1s[i], fs[i]);
         }
+        return n;
     }
 
-    public static class Slot {
+    /**
+     * Deletes one fingerprint of {@code key}. Only keys that were inserted before
+     * may be deleted, otherwise the fingerprint of a colliding key can be removed.
+     *
+     * @return true if a matching fingerprint was found and removed
+     */
+    public boolean delete(Object key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
 
-        private Fingerprint fingerprint;
-        private boolean flag;
-        private double value;
+    public boolean delete(long key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
 
-        public Slot() {
-            this.fingerprint = new Fingerprint(2);
-            this.flag = true;
-            this.value = 0.0;
-        }
+    public boolean delete(CharSequence key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
 
-        public Slot(Fingerprint fingerprint, double value) {
-            this.fingerprint = fingerprint;
-            this.flag = false;
-            this.value = value;
-        }
+    public boolean delete(byte[] key, int offset, int length) {
+        return deleteHash(this.hashStrategy.hash(key, offset, length));
+    }
 
-        public void setFingerprint(Fingerprint f) {
-            this.fingerprint = f;
-        }
+    public boolean delete(ByteBuffer key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
 
-        public void setFlag(boolean flag) {
-            this.flag = flag;
-        }
+    boolean deleteHash(long h) {
 
-        public void setValue(double value) {
-            this.value = value;
-        }
+        checkWritable();
+        long start = this.metrics.startSample();
+        int f = fingerprintOf(h, this.fingerprintBits);
+        int p1 = index(h);
+        int p2 = altIndex(p1, f);
 
-        public Fingerprint getFingerprint() {
-            return this.fingerprint;
+        boolean res;
+        if (this.table.delete(p1, f) || this.table.delete(p2, f)) {
+            if (stashed()) {
+                //腾出了位置, 把stash里能放回表的放回去
+                this.stash.drain(this, this.table);
+            }
+            res = true;
+        } else {
+            res = stashed() && this.stash.delete(p1, p2, f);
         }
+        this.metrics.endSample(FilterMetrics.DELETE, start);
+        return res;
+    }
 
-        public boolean getFlag() {
-            return this.flag;
+    /**
+     * Adds every entry of {@code other} to this filter, as if its keys had been
+     * inserted here. No key is needed: an entry's alternate bucket follows from
+     * its bucket and fingerprint alone, so both filters must have the same
+     * capacity, bucket size, fingerprint width, {@link BucketLayout} and
+     * {@link HashStrategy}. Keys present in both filters end up stored twice, so
+     * merge filters built from disjoint keys.
+     *
+     * @return false if some entries did not fit; the others are still added
+     * @throws IllegalArgumentException if the filters differ in any of the above
+     */
+    public boolean merge(CuckooFilter other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a filter into itself");
         }
-
-        public double getValue() {
-            return this.value;
+        checkMergeable(this, other);
+
+        boolean res = true;
+        BucketTable from = other.table;
+        for (int b = 0; b < this.capacity; b++) {
+            for (int s = 0; s < from.bucketSize(); s++) {
+                int f = from.fingerprint(b, s);
+                if (f != BucketTable.NULL_FINGERPRINT) {
+                    res &= insert(f, b, altIndex(b, f), from.value(b, s));
+                }
+            }
         }
+        for (int i = 0; other.stash != null && i < other.stash.size(); i++) {
+            int f = other.stash.fingerprint(i);
+            int b = other.stash.bucket(i);
+            res &= insert(f, b, altIndex(b, f), other.stash.value(i));
+        }
+        return res;
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof Slot)) return false;
-            Slot slot = (Slot) o;
-            return getFingerprint() == slot.getFingerprint();
+    /**
+     * Combines filters built separately over disjoint parts of the keys, e.g. on
+     * several threads, or on other nodes and shipped with {@link #writeTo(OutputStream)},
+     * into a new heap filter with the capacity, bucket size, fingerprint width,
+     * insert mode, layout and hash strategy of the first shard.
+     *
+     * @throws IllegalArgumentException if the shards differ in capacity, bucket size, fingerprint width,
+     *                                  layout or hash strategy
+     * @throws IllegalStateException    if the shards together do not fit into one filter
+     */
+    public static CuckooFilter union(CuckooFilter... shards) {
+        CuckooFilter first = shards[0];
+        //先全部检查, 不匹配的shard在分配新表之前就失败
+        for (CuckooFilter shard : shards) {
+            checkMergeable(first, shard);
         }
+        int bucketSize = first.table.bucketSize();
+        BucketTable table = first.fingerprintBits == 8 && bucketSize == BucketTable.BUCKET_SIZE
+                ? new HeapBucketTable(first.capacity)
+                : new PackedBucketTable(first.capacity, first.fingerprintBits, null, bucketSize);
+        CuckooFilter res = new CuckooFilter(table, first.stash != null ? InsertMode.BREADTH_FIRST : InsertMode.RANDOM_WALK,
+                first.layout, first.hashStrategy);
+        for (CuckooFilter shard : shards) {
+            if (!res.merge(shard)) {
+                throw new IllegalStateException("Shards do not fit into one filter of capacity " + first.capacity);
+            }
+        }
+        return res;
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(getFingerprint());
+    /**
+     * Checks that the entries of {@code b} sit in the buckets {@code a} would put
+     * their keys in.
+     */
+    private static void checkMergeable(CuckooFilter a, CuckooFilter b) {
+        if (a.capacity != b.capacity || a.fingerprintBits != b.fingerprintBits
+                || a.table.bucketSize() != b.table.bucketSize() || a.layout != b.layout
+                || !a.hashStrategy.sameAs(b.hashStrategy)) {
+            throw new IllegalArgumentException(
+                    "Cannot merge filters of different capacity, bucket size, fingerprint width, layout or hash strategy");
         }
     }
 
-    public static class Fingerprint {
+    /**
+     * Returns a spliterator over the stored entries: every occupied slot bucket
+     * by bucket, then the stash. It splits by bucket range, so a parallel
+     * {@link #entries()} stream or a fork-join task scans disjoint parts of the
+     * table on each core. The filter must not be written during the scan.
+     */
+    public Spliterator<FilterEntry> spliterator() {
+        return new EntrySpliterator(this.table, this.stash, 0, this.capacity);
+    }
 
-        private byte[] fingerprint;
-        private int size;
+    /**
+     * Returns a sequential stream of the stored entries, see {@link #spliterator()};
+     * call {@code parallel()} on it to scan on all cores.
+     */
+    public Stream<FilterEntry> entries() {
+        return StreamSupport.stream(spliterator(), false);
+    }
 
-        public Fingerprint(int size) {
-            this.size = size;
-            this.fingerprint = new byte[size];
-        }
+    public void forEach(Consumer<? super FilterEntry> action) {
+        spliterator().forEachRemaining(action);
+    }
 
-        public byte[] getFingerprint() {
-            return fingerprint;
+    /**
+     * Removes every entry matching {@code filter}, in one pass over the buckets.
+     *
+     * @return the number of entries removed
+     */
+    public int removeIf(Predicate<? super FilterEntry> filter) {
+        checkWritable();
+        int bucketSize = this.table.bucketSize();
+        int[] fs = new int[bucketSize];
+        double[] values = new double[bucketSize];
+        int removed = 0;
+        for (int b = 0; b < this.capacity; b++) {
+            int n = 0;
+            for (int s = 0; s < bucketSize; s++) {
+                int f = this.table.fingerprint(b, s);
+                if (f != BucketTable.NULL_FINGERPRINT && filter.test(new FilterEntry(b, f, this.table.value(b, s)))) {
+                    fs[n] = f;
+                    values[n++] = this.table.value(b, s);
+                }
+            }
+            //写入可能重排bucket内的slot(SemiSortedBucketTable), 每次按fingerprint和value重新找
+            for (int i = 0; i < n; i++) {
+                for (int s = 0; s < bucketSize; s++) {
+                    if (this.table.fingerprint(b, s) == fs[i]
+                            && Double.doubleToRawLongBits(this.table.value(b, s)) == Double.doubleToRawLongBits(values[i])) {
+                        this.table.set(b, s, BucketTable.NULL_FINGERPRINT, 0.0);
+                        break;
+                    }
+                }
+            }
+            removed += n;
         }
-
-        public void setFingerprint(byte[] fingerprint) {
-            this.fingerprint = fingerprint;
+        this.table.addSize(-removed);
+        if (stashed()) {
+            for (int i = this.stash.size() - 1; i >= 0; i--) {
+                if (filter.test(new FilterEntry(this.stash.bucket(i), this.stash.fingerprint(i), this.stash.value(i)))) {
+                    this.stash.remove(i);
+                    removed++;
+                }
+            }
+            this.stash.drain(this, this.table);
         }
+        return removed;
+    }
 
-        public int getSize() {
-            return size;
+    /**
+     * Removes every entry at once, without rehashing or reallocating.
+     */
+    public void clear() {
+        checkWritable();
+        this.table.clear();
+        if (this.stash != null) {
+            this.stash.clear();
         }
+    }
 
-        public void setSize(int size) {
-            this.size = size;
-        }
+    /**
+     * Returns the number of fingerprints in this filter.
+     */
+    public int size() {
+        return this.stash == null ? this.table.size() : this.table.size() + this.stash.size();
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof Fingerprint)) return false;
-            Fingerprint that = (Fingerprint) o;
-            return Arrays.equals(getFingerprint(), that.getFingerprint());
-        }
+    /**
+     * Returns the live health metrics of this filter, see {@link FilterMetrics}.
+     */
+    public FilterMetrics metrics() {
+        return this.metrics;
+    }
 
-        @Override
-        public int hashCode() {
-            return Arrays.hashCode(getFingerprint());
-        }
+    public BucketLayout layout() {
+        return this.layout;
+    }
+
+    public HashStrategy hashStrategy() {
+        return this.hashStrategy;
+    }
+
+    /**
+     * Returns an immutable, compact copy of this filter for lookups only, see
+     * {@link FrozenCuckooFilter}. This filter is left unchanged.
+     */
+    public FrozenCuckooFilter freeze() {
+        return new FrozenCuckooFilter(this);
     }
 
-    public Fingerprint fingerprint(Object key, int len) {
+    BucketTable table() {
+        return this.table;
+    }
 
-        Fingerprint fingerprint = new Fingerprint(len);
+    int[] altMasks() {
+        return this.altMasks.clone();
+    }
 
-        byte[] fs = new byte[len];
+    /**
+     * Returns the stash, or null in {@link InsertMode#RANDOM_WALK} mode.
+     */
+    Stash stash() {
+        return this.stash;
+    }
 
-        int h = key.hashCode();
+    /**
+     * Writes pending changes to the backing file of an off-heap filter; a no-op on heap.
+     */
+    public void flush() throws IOException {
+        this.table.flush();
+    }
 
-        for (int i = 0; i < len; i++) {
-            h += ~(h << 15);
-            h ^= (h >> 10);
-            h += (h << 3);
-            h ^= (h >> 6);
-            h += ~(h << 11);
-            h ^= (h >> 16);
+    @Override
+    public void close() throws IOException {
+        this.table.close();
+    }
 
-            byte hash = (byte) h;
-            if (hash == Bucket.NULL_FINGERPRINT) {
-                hash = 40;
-            }
+    private boolean relocateAndInsert(int p1, int p2, int f, double value) {
+
+        boolean flag = this.random.nextBoolean();
+        int replacedBucketPosition = flag ? p1 : p2;
+
+        for (int i = 0; i < MAX_NUM_KICKS; i++) {
+            //随机得到被替换bucket中slot的位置
+            int replacedSlotPosition = this.random.nextInt(this.table.bucketSize());
+            this.kickBuckets[i] = replacedBucketPosition;
+            this.kickFingerprints[i] = f;
+            //获取被替换slot中的key和value
+            int replacedF = this.table.fingerprint(replacedBucketPosition, replacedSlotPosition);
+            double replacedValue = this.table.value(replacedBucketPosition, replacedSlotPosition);
+            //将f和value插入带替换slot
+            this.table.set(replacedBucketPosition, replacedSlotPosition, f, value);
+            f = replacedF;
+            value = replacedValue;
 
-            fs[i] = hash;
+            //获取被替换f的对偶位置
+            replacedBucketPosition = altIndex(replacedBucketPosition, f);
+
+            if (this.table.add(replacedBucketPosition, f, value)) {
+                this.metrics.recordInsert(i + 1);
+                return true;
+            }
         }
 
-        fingerprint.setFingerprint(fs);
+        //没找到空位, 沿原路换回去, 表恢复原状, 不丢已有的元素.
+        //slot下标可能因写入而变化(SemiSortedBucketTable), 按放进去的fingerprint找回slot
+        for (int i = MAX_NUM_KICKS - 1; i >= 0; i--) {
+            int bucket = this.kickBuckets[i];
+            int slot = this.table.indexOf(bucket, this.kickFingerprints[i]);
+            int replacedF = this.table.fingerprint(bucket, slot);
+            double replacedValue = this.table.value(bucket, slot);
+            this.table.set(bucket, slot, f, value);
+            f = replacedF;
+            value = replacedValue;
+        }
 
-        return fingerprint;
+        this.metrics.recordFailed();
+        return false;
+    }
 
+    /**
+     * Returns the fingerprint of {@code key}, as wide as the table's fingerprints
+     * and never {@link BucketTable#NULL_FINGERPRINT}.
+     */
+    public int fingerprint(Object key) {
+        return fingerprintOf(this.hashStrategy.hash(key), this.fingerprintBits);
     }
 
     public int hash(Object key) {
+        return index(this.hashStrategy.hash(key));
+    }
 
-        int h = key.hashCode();
-        h -= (h << 6);
-        h ^= (h >> 17);
-        h -= (h << 9);
-        h ^= (h << 4);
-        h -= (h << 3);
-        h ^= (h << 10);
-        h ^= (h >> 15);
+    /**
+     * Returns the other bucket {@code f} may live in; applying it twice gives back {@code p}.
+     * In a {@link BucketLayout#BLOCKED} layout only the low bits of {@code p}
+     * within the block size chosen by {@code f} change.
+     */
+    int altIndex(int p, int f) {
+        return p ^ (mix(f) & this.altMasks[f & (BLOCK_SIZES.length - 1)]);
+    }
+
+    /**
+     * Takes the bucket position from the low bits of the key hash.
+     */
+    int index(long h) {
+        return (int) h & (this.capacity - 1);
+    }
+
+    /**
+     * Takes the fingerprint from the top {@code bits} bits of the key hash,
+     * independent of the bucket bits.
+     */
+    static int fingerprintOf(long h, int bits) {
+
+        int f = (int) (h >>> (64 - bits));
+        if (f == BucketTable.NULL_FINGERPRINT) {
+            f = 1;
+        }
 
-        return h & (this.capacity - 1);
+        return f;
+    }
+
+    /**
+     * Spreads a fingerprint over the index bits with a single multiplication,
+     * keeping the high half of the 64-bit product (Fibonacci hashing).
+     */
+    static int mix(int f) {
+        return (int) (((f & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    /**
+     * Rounds a requested number of buckets up to a power of two, rejecting counts
+     * beyond {@link #MAXIMUM_CAPACITY} instead of silently capping them.
+     */
+    static int checkCapacity(int capacity) {
+        if (capacity <= 0 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be in [1, " + MAXIMUM_CAPACITY + "] buckets: " + capacity);
+        }
+        return tableSizeFor(capacity);
     }
 
     static int tableSizeFor(int cap) {
@@ -309,6 +864,6 @@ public class CuckooFilter {
         n |= n >>> 4;
         n |= n >>> 8;
         n |= n >>> 16;
-        return (n < 0) ? 1 : (n >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : n + 1;
+        return (n < 0) ? 1 : (n >= BucketTable.MAXIMUM_SLOTS) ? BucketTable.MAXIMUM_SLOTS : n + 1;
     }
 }
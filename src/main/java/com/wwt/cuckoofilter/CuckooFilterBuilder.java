@@ -0,0 +1,220 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * Sizes a heap {@link CuckooFilter} from what it has to hold instead of a raw
+ * bucket count: the expected number of keys, a target false-positive rate and
+ * a memory budget.
+ * <p>
+ * For each bucket size of 2, 4 and 8 slots the planner takes the fewest
+ * fingerprint bits whose false-positive bound {@code 2 * bucketSize / (2^bits - 1)}
+ * meets the target, and the fewest buckets, a power of two, that keep the load
+ * under what random-walk inserts reliably reach at that bucket size. Wider buckets
+ * load fuller but need longer fingerprints for the same rate; the planner keeps
+ * whichever bucket size takes the least memory, and buckets of four on a tie.
+ * Without a target rate it spends the memory budget on the longest
+ * fingerprints that fit instead.
+ * <p>
+ * Values are counted at 64 bits per slot unless a {@link #valueCodec(ValueCodec)
+ * codec} packs them; a filter used for membership only can pass
+ * {@code ValueCodec.dictionary(0.0)} to keep one bit per slot.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 02:30
+ */
+public class CuckooFilterBuilder {
+
+    //相同内存时优先4, 探测最快
+    private static final int[] BUCKET_SIZES = {4, 2, 8};
+    //各bucket宽度下random walk能稳定达到的装载率, 比论文里的上限留了余量
+    private static final double[] LOAD_FACTORS = {0.93, 0.82, 0.96};
+
+    private long expectedItems;
+    private double falsePositiveRate;
+    private long memoryBudget = Long.MAX_VALUE;
+    private ValueCodec valueCodec;
+    private InsertMode mode = InsertMode.RANDOM_WALK;
+    private BucketLayout layout = BucketLayout.SPREAD;
+    private HashStrategy hashStrategy = HashStrategy.murmur();
+
+    public CuckooFilterBuilder expectedItems(long expectedItems) {
+        if (expectedItems <= 0) {
+            throw new IllegalArgumentException("Expected items must be positive: " + expectedItems);
+        }
+        this.expectedItems = expectedItems;
+        return this;
+    }
+
+    public CuckooFilterBuilder falsePositiveRate(double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        return this;
+    }
+
+    /**
+     * @param memoryBudget bytes of fingerprints and values the table may take
+     */
+    public CuckooFilterBuilder memoryBudget(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    public CuckooFilterBuilder valueCodec(ValueCodec valueCodec) {
+        this.valueCodec = valueCodec;
+        return this;
+    }
+
+    public CuckooFilterBuilder insertMode(InsertMode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    public CuckooFilterBuilder layout(BucketLayout layout) {
+        this.layout = layout;
+        return this;
+    }
+
+    public CuckooFilterBuilder hashStrategy(HashStrategy hashStrategy) {
+        this.hashStrategy = hashStrategy;
+        return this;
+    }
+
+    /**
+     * Chooses bucket size, fingerprint bits and capacity without allocating anything.
+     *
+     * @throws IllegalStateException if the expected item count is missing, or no
+     *                               bucket size meets the target within the budget
+     */
+    public Plan plan() {
+        if (this.expectedItems == 0) {
+            throw new IllegalStateException("Expected items not set");
+        }
+        if (this.falsePositiveRate == 0 && this.memoryBudget == Long.MAX_VALUE) {
+            throw new IllegalStateException("Set a false-positive rate, a memory budget or both");
+        }
+        int valueBits = this.valueCodec == null ? 64 : this.valueCodec.bits();
+        Plan best = null;
+        for (int i = 0; i < BUCKET_SIZES.length; i++) {
+            int bucketSize = BUCKET_SIZES[i];
+            long buckets = (long) Math.ceil(this.expectedItems / (LOAD_FACTORS[i] * bucketSize));
+            if (buckets * bucketSize > BucketTable.MAXIMUM_SLOTS) {
+                continue;
+            }
+            int capacity = CuckooFilter.tableSizeFor((int) buckets);
+            //取整到2的幂之后再检查, 否则plan通过了build却分配不出来
+            long slots = (long) capacity * bucketSize;
+            if (slots > BucketTable.MAXIMUM_SLOTS) {
+                continue;
+            }
+            int bits;
+            if (this.falsePositiveRate > 0) {
+                bits = 4;
+                while (bits < 32 && bound(bucketSize, bits) > this.falsePositiveRate) {
+                    bits++;
+                }
+                if (bound(bucketSize, bits) > this.falsePositiveRate) {
+                    continue;
+                }
+            } else {
+                //只给了内存: 用满预算, fingerprint越长越好
+                bits = (int) Math.min(32, this.memoryBudget * 8 / slots - valueBits);
+                if (bits < 4) {
+                    continue;
+                }
+            }
+            Plan plan = new Plan(capacity, bucketSize, bits, (slots * (bits + valueBits) + 7) / 8);
+            if (plan.memoryBytes > this.memoryBudget) {
+                continue;
+            }
+            if (best == null || better(plan, best)) {
+                best = plan;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("No bucket size fits " + this.expectedItems + " items"
+                    + (this.falsePositiveRate > 0 ? " at a false-positive rate of " + this.falsePositiveRate : "")
+                    + (this.memoryBudget != Long.MAX_VALUE ? " into " + this.memoryBudget + " bytes" : ""));
+        }
+        return best;
+    }
+
+    /**
+     * Returns an empty filter sized by {@link #plan()}.
+     */
+    public CuckooFilter build() {
+        Plan plan = plan();
+        BucketTable table = plan.bucketSize == BucketTable.BUCKET_SIZE && plan.fingerprintBits == 8 && this.valueCodec == null
+                ? new HeapBucketTable(plan.capacity)
+                : new PackedBucketTable(plan.capacity, plan.fingerprintBits, this.valueCodec, plan.bucketSize);
+        return new CuckooFilter(table, this.mode, this.layout, this.hashStrategy);
+    }
+
+    private boolean better(Plan plan, Plan best) {
+        if (this.falsePositiveRate == 0 && plan.falsePositiveRate() != best.falsePositiveRate()) {
+            return plan.falsePositiveRate() < best.falsePositiveRate();
+        }
+        return plan.memoryBytes < best.memoryBytes;
+    }
+
+    private static double bound(int bucketSize, int bits) {
+        return 2.0 * bucketSize / ((1L << bits) - 1);
+    }
+
+    /**
+     * The table a builder settled on.
+     */
+    public static final class Plan {
+
+        private final int capacity;
+        private final int bucketSize;
+        private final int fingerprintBits;
+        private final long memoryBytes;
+
+        Plan(int capacity, int bucketSize, int fingerprintBits, long memoryBytes) {
+            this.capacity = capacity;
+            this.bucketSize = bucketSize;
+            this.fingerprintBits = fingerprintBits;
+            this.memoryBytes = memoryBytes;
+        }
+
+        /**
+         * Returns the number of buckets.
+         */
+        public int capacity() {
+            return this.capacity;
+        }
+
+        public int bucketSize() {
+            return this.bucketSize;
+        }
+
+        public int fingerprintBits() {
+            return this.fingerprintBits;
+        }
+
+        /**
+         * Returns the false-positive rate of a full table, an upper bound for any load.
+         */
+        public double falsePositiveRate() {
+            return bound(this.bucketSize, this.fingerprintBits);
+        }
+
+        /**
+         * Returns the bytes taken by fingerprints and values, without object headers.
+         */
+        public long memoryBytes() {
+            return this.memoryBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "Plan{capacity=" + this.capacity + ", bucketSize=" + this.bucketSize
+                    + ", fingerprintBits=" + this.fingerprintBits + ", falsePositiveRate=" + falsePositiveRate()
+                    + ", memoryBytes=" + this.memoryBytes + "}";
+        }
+    }
+}
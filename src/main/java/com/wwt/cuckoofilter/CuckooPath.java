@@ -0,0 +1,100 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * Breadth-first search for a cuckoo path, as used by {@link InsertMode#BREADTH_FIRST}.
+ * Unlike the random walk nothing is moved until a path ending in an empty slot
+ * is found, and the path found is the shortest one within {@link #MAX_DEPTH} moves.
+ * The search state is preallocated, so a search does not allocate.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 16:40
+ */
+final class CuckooPath {
+
+    static final int MAX_DEPTH = 5;
+    private static final int MAX_NODES = 1024;
+
+    //BFS节点: 所在bucket, 父节点, 以及父bucket中要移到这个bucket的fingerprint
+    private final int[] buckets = new int[MAX_NODES];
+    private final int[] parents = new int[MAX_NODES];
+    private final int[] fingerprints = new int[MAX_NODES];
+    private final int[] depths = new int[MAX_NODES];
+    private int length;
+
+    /**
+     * Frees a slot in {@code p1} or {@code p2} by moving entries along the shortest
+     * path found, then stores {@code f} there.
+     *
+     * @return false if no path was found; moves already applied leave every entry
+     * in one of its two buckets
+     */
+    boolean insert(CuckooFilter filter, BucketTable table, int p1, int p2, int f, double value) {
+
+        int tail = 0;
+        tail = enqueue(tail, p1, -1, -1, 0);
+        tail = enqueue(tail, p2, -1, -1, 0);
+
+        for (int head = 0; head < tail; head++) {
+            int bucket = this.buckets[head];
+            if (table.indexOf(bucket, BucketTable.NULL_FINGERPRINT) >= 0) {
+                this.length = this.depths[head];
+                return apply(table, head) && table.add(this.buckets[root(head)], f, value);
+            }
+            if (this.depths[head] == MAX_DEPTH) {
+                continue;
+            }
+            for (int slot = 0; slot < table.bucketSize() && tail < MAX_NODES; slot++) {
+                int moved = table.fingerprint(bucket, slot);
+                tail = enqueue(tail, filter.altIndex(bucket, moved), head, moved, this.depths[head] + 1);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of entries moved by the last successful {@link #insert}.
+     */
+    int length() {
+        return this.length;
+    }
+
+    private int enqueue(int tail, int bucket, int parent, int f, int depth) {
+        this.buckets[tail] = bucket;
+        this.parents[tail] = parent;
+        this.fingerprints[tail] = f;
+        this.depths[tail] = depth;
+        return tail + 1;
+    }
+
+    private int root(int node) {
+        while (this.parents[node] >= 0) {
+            node = this.parents[node];
+        }
+        return node;
+    }
+
+    /**
+     * Moves entries from the end of the path backwards, each into the slot freed
+     * by the previous move. Entries are found by fingerprint, as a table may
+     * reorder a bucket on every write, and a path passing the same bucket twice
+     * may have been changed by its own earlier moves; such a path is abandoned.
+     */
+    private boolean apply(BucketTable table, int node) {
+        int toBucket = this.buckets[node];
+        while (this.parents[node] >= 0) {
+            int fromBucket = this.buckets[this.parents[node]];
+            int f = this.fingerprints[node];
+            int fromSlot = table.indexOf(fromBucket, f);
+            int toSlot = table.indexOf(toBucket, BucketTable.NULL_FINGERPRINT);
+            if (fromSlot < 0 || toSlot < 0) {
+                return false;
+            }
+            table.set(toBucket, toSlot, f, table.value(fromBucket, fromSlot));
+            table.set(fromBucket, table.indexOf(fromBucket, f), BucketTable.NULL_FINGERPRINT, 0.0);
+            toBucket = fromBucket;
+            node = this.parents[node];
+        }
+        return true;
+    }
+}
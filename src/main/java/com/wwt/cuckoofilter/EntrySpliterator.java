@@ -0,0 +1,110 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the entries of a {@link CuckooFilter}, bucket by bucket and
+ * then the stash. It splits off the lower half of its bucket range, so the
+ * parts of a parallel scan touch disjoint, contiguous stretches of the table;
+ * the stash stays with the part that ends at the last bucket.
+ * <p>
+ * Nothing is copied: the table is read as the scan goes, so the filter must not
+ * be written until the scan is done.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 03:10
+ */
+final class EntrySpliterator implements Spliterator<FilterEntry> {
+
+    //少于这么多bucket不再拆分, 再拆的调度开销比扫描还大
+    private static final int MIN_SPLIT = 1 << 10;
+
+    private final BucketTable table;
+    private final int bucketSize;
+    private final Stash stash;
+    private int bucket;
+    private int slot;
+    private final int fence;
+    private int stashIndex;
+
+    /**
+     * @param stash the stash to scan after the buckets, or null
+     */
+    EntrySpliterator(BucketTable table, Stash stash, int origin, int fence) {
+        this.table = table;
+        this.bucketSize = table.bucketSize();
+        this.stash = stash;
+        this.bucket = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super FilterEntry> action) {
+        for (; this.bucket < this.fence; this.bucket++, this.slot = 0) {
+            while (this.slot < this.bucketSize) {
+                int s = this.slot++;
+                int f = this.table.fingerprint(this.bucket, s);
+                if (f != BucketTable.NULL_FINGERPRINT) {
+                    action.accept(new FilterEntry(this.bucket, f, this.table.value(this.bucket, s)));
+                    return true;
+                }
+            }
+        }
+        if (this.stash != null && this.stashIndex < this.stash.size()) {
+            int i = this.stashIndex++;
+            action.accept(new FilterEntry(this.stash.bucket(i), this.stash.fingerprint(i), this.stash.value(i)));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super FilterEntry> action) {
+        BucketTable table = this.table;
+        int bucketSize = this.bucketSize;
+        int s = this.slot;
+        for (int b = this.bucket; b < this.fence; b++, s = 0) {
+            for (; s < bucketSize; s++) {
+                int f = table.fingerprint(b, s);
+                if (f != BucketTable.NULL_FINGERPRINT) {
+                    action.accept(new FilterEntry(b, f, table.value(b, s)));
+                }
+            }
+        }
+        this.bucket = this.fence;
+        this.slot = 0;
+        for (; this.stash != null && this.stashIndex < this.stash.size(); this.stashIndex++) {
+            int i = this.stashIndex;
+            action.accept(new FilterEntry(this.stash.bucket(i), this.stash.fingerprint(i), this.stash.value(i)));
+        }
+    }
+
+    @Override
+    public Spliterator<FilterEntry> trySplit() {
+        int lo = this.bucket;
+        //当前bucket扫了一半时不拆, 前一半从下一个bucket开始
+        if (this.slot != 0 || this.fence - lo < MIN_SPLIT << 1) {
+            return null;
+        }
+        int mid = (lo + this.fence) >>> 1;
+        this.bucket = mid;
+        return new EntrySpliterator(this.table, null, lo, mid);
+    }
+
+    /**
+     * Estimates from the average load of the table; exact only for the whole of
+     * a table whose entries are spread evenly.
+     */
+    @Override
+    public long estimateSize() {
+        long buckets = this.fence - this.bucket;
+        long res = buckets * this.table.size() / Math.max(1, this.table.capacity());
+        return this.stash == null ? res : res + this.stash.size() - this.stashIndex;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+}
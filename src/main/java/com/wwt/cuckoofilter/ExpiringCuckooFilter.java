@@ -0,0 +1,217 @@
+package com.wwt.cuckoofilter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuckoo filter over a sliding window, for deduplicating recent events. It keeps
+ * a ring of equally sized {@link CuckooFilter} generations; inserts go to the
+ * current one and lookups and deletes search all of them, newest first.
+ * <p>
+ * The current generation is rotated out after a fixed interval, after a fixed
+ * number of inserts, or when it is full, whichever comes first. Rotating clears
+ * the oldest generation in one bulk pass and makes it current, so a key stays
+ * visible for between {@code generations - 1} and {@code generations} rotation
+ * intervals; there is no full rebuild and no moment where recent keys are lost.
+ * Time is checked on every call, so no background thread is needed; call
+ * {@link #rotate()} to rotate on an external schedule instead.
+ * <p>
+ * Like {@link CuckooFilter} this class is not thread-safe. A lookup probes each
+ * generation once, with NaN marking a miss, so NaN is not a storable value.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 22:30
+ */
+public class ExpiringCuckooFilter {
+
+    private final CuckooFilter[] generations;
+    private final long intervalNanos;
+    private final long itemsPerGeneration;
+    private final HashStrategy hashStrategy;
+    //generations[current]是最新一代, 往前依次变旧
+    private int current;
+    private long rotatedAt;
+    private long inserted;
+
+    /**
+     * Rotates every {@code interval}, so keys expire after about
+     * {@code generations * interval}.
+     *
+     * @param capacity buckets per generation, rounded up to a power of two
+     */
+    public ExpiringCuckooFilter(int capacity, int generations, long interval, TimeUnit unit) {
+        this(capacity, generations, interval, unit, 0);
+    }
+
+    /**
+     * Rotates every {@code itemsPerGeneration} inserts, so about the last
+     * {@code (generations - 1) * itemsPerGeneration} keys are remembered.
+     */
+    public ExpiringCuckooFilter(int capacity, int generations, long itemsPerGeneration) {
+        this(capacity, generations, 0, TimeUnit.NANOSECONDS, itemsPerGeneration);
+    }
+
+    /**
+     * @param interval           rotation interval, or 0 to rotate on item count only
+     * @param itemsPerGeneration inserts per generation, or 0 to rotate on time only
+     */
+    public ExpiringCuckooFilter(int capacity, int generations, long interval, TimeUnit unit, long itemsPerGeneration) {
+        this(capacity, generations, interval, unit, itemsPerGeneration, HashStrategy.murmur());
+    }
+
+    public ExpiringCuckooFilter(int capacity, int generations, long interval, TimeUnit unit, long itemsPerGeneration,
+                                HashStrategy hashStrategy) {
+        if (generations < 2) {
+            throw new IllegalArgumentException("Need at least 2 generations: " + generations);
+        }
+        if (interval < 0 || itemsPerGeneration < 0) {
+            throw new IllegalArgumentException("Negative rotation interval or item count");
+        }
+        this.generations = new CuckooFilter[generations];
+        for (int i = 0; i < generations; i++) {
+            this.generations[i] = new CuckooFilter(new HeapBucketTable(CuckooFilter.checkCapacity(capacity)),
+                    InsertMode.RANDOM_WALK, BucketLayout.SPREAD, hashStrategy);
+        }
+        this.intervalNanos = unit.toNanos(interval);
+        this.itemsPerGeneration = itemsPerGeneration;
+        this.hashStrategy = hashStrategy;
+        this.rotatedAt = System.nanoTime();
+    }
+
+    public boolean insert(Object key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(long key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    private boolean insertHash(long h, double value) {
+        expire();
+        if (this.itemsPerGeneration != 0 && this.inserted >= this.itemsPerGeneration) {
+            rotate();
+        }
+        if (!this.generations[this.current].insertHash(h, value)) {
+            //当前一代满了, 提前轮换
+            rotate();
+            if (!this.generations[this.current].insertHash(h, value)) {
+                return false;
+            }
+        }
+        this.inserted++;
+        return true;
+    }
+
+    public double get(Object key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    public double get(long key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    private double getHash(long h) {
+        expire();
+        for (int i = 0; i < this.generations.length; i++) {
+            CuckooFilter generation = generation(i);
+            //一次探测: 没有匹配时返回NaN
+            double value = generation.getHash(h, Double.NaN);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return 0.0;
+    }
+
+    public boolean contains(Object key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean contains(long key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean containsHash(long h) {
+        expire();
+        for (int i = 0; i < this.generations.length; i++) {
+            if (generation(i).containsHash(h)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes one fingerprint of {@code key}, which must have been inserted and not expired.
+     */
+    public boolean delete(Object key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean delete(long key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean deleteHash(long h) {
+        expire();
+        for (int i = 0; i < this.generations.length; i++) {
+            if (generation(i).deleteHash(h)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the oldest generation and starts a new, empty one.
+     */
+    public void rotate() {
+        this.current = this.current == 0 ? this.generations.length - 1 : this.current - 1;
+        this.generations[this.current].clear();
+        this.inserted = 0;
+        this.rotatedAt = System.nanoTime();
+    }
+
+    /**
+     * Returns the number of fingerprints over all live generations.
+     */
+    public int size() {
+        expire();
+        int size = 0;
+        for (CuckooFilter generation : this.generations) {
+            size += generation.size();
+        }
+        return size;
+    }
+
+    public HashStrategy hashStrategy() {
+        return this.hashStrategy;
+    }
+
+    /**
+     * Returns the {@code age}-th newest generation, 0 being the current one.
+     */
+    private CuckooFilter generation(int age) {
+        int i = this.current + age;
+        return this.generations[i < this.generations.length ? i : i - this.generations.length];
+    }
+
+    /**
+     * Rotates once per interval elapsed since the last rotation, at most once per generation.
+     */
+    private void expire() {
+        if (this.intervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = this.rotatedAt;
+        long elapsed = (now - last) / this.intervalNanos;
+        if (elapsed == 0) {
+            return;
+        }
+        for (long i = Math.min(elapsed, this.generations.length); i > 0; i--) {
+            rotate();
+        }
+        //保持轮换节拍, 不因调用时刻而漂移
+        this.rotatedAt = now - (now - last) % this.intervalNanos;
+    }
+}
@@ -0,0 +1,39 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * One entry stored in a {@link CuckooFilter}, as seen by a {@link CuckooFilter#spliterator() scan}:
+ * the bucket holding its fingerprint, the fingerprint and the value. A stashed
+ * entry reports the bucket it was stashed for.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 03:10
+ */
+public final class FilterEntry {
+
+    private final int bucket;
+    private final int fingerprint;
+    private final double value;
+
+    FilterEntry(int bucket, int fingerprint, double value) {
+        this.bucket = bucket;
+        this.fingerprint = fingerprint;
+        this.value = value;
+    }
+
+    public int bucket() {
+        return this.bucket;
+    }
+
+    public int fingerprint() {
+        return this.fingerprint;
+    }
+
+    public double value() {
+        return this.value;
+    }
+
+    @Override
+    public String toString() {
+        return "FilterEntry{bucket=" + this.bucket + ", fingerprint=" + this.fingerprint + ", value=" + this.value + "}";
+    }
+}
@@ -0,0 +1,263 @@
+package com.wwt.cuckoofilter;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Live health metrics of a {@link CuckooFilter}, read through the getters or
+ * over JMX once {@link #register(String) registered}.
+ * <p>
+ * The hot path only bumps plain counters: kick-chain lengths and insert outcomes
+ * are counted on every insert, latency is timed on a random one operation in
+ * {@value #SAMPLE_RATE}, drawn per thread so an operation that is not timed
+ * writes nothing. Load factor and bucket occupancy are computed from the
+ * table when asked, which scans every bucket. Counters are written by the thread
+ * using the filter without synchronization, so a reader on another thread, such
+ * as JMX, sees values that may lag slightly behind.
+ * <p>
+ * A filter over a read-only table, e.g. a zero-copy snapshot, is meant to be
+ * shared between threads for lookups, so it times nothing unless
+ * {@link #setLatencySampling(boolean) asked to}.
+ * <p>
+ * Histograms use power-of-two bins: bin 0 counts zero, bin {@code k} counts
+ * values in {@code [2^(k-1), 2^k)}, the last bin everything above.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 20:50
+ */
+public class FilterMetrics implements FilterMetricsMBean {
+
+    public static final int INSERT = 0;
+    public static final int LOOKUP = 1;
+    public static final int DELETE = 2;
+
+    private static final int SAMPLE_RATE = 64;
+    private static final int KICK_BINS = 10;
+    private static final int LATENCY_BINS = 32;
+
+    private final CuckooFilter filter;
+    private boolean sampling;
+    private long inserts;
+    private long failedInserts;
+    private long stashedInserts;
+    private final long[] kickChains = new long[KICK_BINS];
+    private final long[][] latencies = new long[3][LATENCY_BINS];
+    private final long[] latencySums = new long[3];
+    private final long[] latencyCounts = new long[3];
+    private ObjectName name;
+
+    FilterMetrics(CuckooFilter filter, boolean sampling) {
+        this.filter = filter;
+        this.sampling = sampling;
+    }
+
+    /**
+     * Turns latency sampling on or off. Only turn it on for a filter shared between
+     * threads if slightly off histograms are acceptable: a timed operation writes
+     * them without synchronization.
+     */
+    public void setLatencySampling(boolean sampling) {
+        this.sampling = sampling;
+    }
+
+    public boolean isLatencySampling() {
+        return this.sampling;
+    }
+
+    /**
+     * Returns {@link System#nanoTime()} if this operation is sampled for latency, else 0.
+     * Sampling at random, not every n-th call, keeps the hot path free of shared
+     * writes and keeps alternating patterns from aliasing.
+     */
+    long startSample() {
+        return this.sampling && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0 ? System.nanoTime() : 0;
+    }
+
+    void endSample(int op, long start) {
+        if (start != 0) {
+            long nanos = System.nanoTime() - start;
+            this.latencies[op][bin(nanos, LATENCY_BINS)]++;
+            this.latencySums[op] += nanos;
+            this.latencyCounts[op]++;
+        }
+    }
+
+    /**
+     * Counts an insert that stored its key after moving {@code kicks} entries.
+     */
+    void recordInsert(int kicks) {
+        this.inserts++;
+        this.kickChains[bin(kicks, KICK_BINS)]++;
+    }
+
+    void recordStashed() {
+        this.inserts++;
+        this.stashedInserts++;
+    }
+
+    void recordFailed() {
+        this.failedInserts++;
+    }
+
+    private static int bin(long v, int bins) {
+        return Math.min(bins - 1, 64 - Long.numberOfLeadingZeros(v));
+    }
+
+    /**
+     * Registers this as an MBean named {@code com.wwt.cuckoofilter:type=CuckooFilter,name=<name>}
+     * on the platform MBean server.
+     */
+    public void register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.wwt.cuckoofilter:type=CuckooFilter,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.name = objectName;
+    }
+
+    public void unregister() throws JMException {
+        if (this.name != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(this.name);
+            this.name = null;
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.filter.table().capacity();
+    }
+
+    @Override
+    public long getSize() {
+        return this.filter.size();
+    }
+
+    /**
+     * Returns the fraction of slots occupied, stashed entries included.
+     */
+    @Override
+    public double getLoadFactor() {
+        return (double) this.filter.size() / ((long) getCapacity() * this.filter.table().bucketSize());
+    }
+
+    /**
+     * Returns the number of successful inserts, stashed ones included.
+     */
+    @Override
+    public long getInserts() {
+        return this.inserts;
+    }
+
+    /**
+     * Returns the number of inserts that returned false because no slot was found.
+     */
+    @Override
+    public long getFailedInserts() {
+        return this.failedInserts;
+    }
+
+    /**
+     * Returns the number of inserts that only fit into the overflow stash of
+     * {@link InsertMode#BREADTH_FIRST}, an early sign of saturation.
+     */
+    @Override
+    public long getStashedInserts() {
+        return this.stashedInserts;
+    }
+
+    /**
+     * Returns how many entries each successful table insert had to move, binned by powers of two.
+     */
+    @Override
+    public long[] getKickChainHistogram() {
+        return this.kickChains.clone();
+    }
+
+    /**
+     * Returns at index {@code i} the number of buckets with {@code i} occupied slots.
+     */
+    @Override
+    public long[] getBucketOccupancy() {
+        BucketTable table = this.filter.table();
+        long[] res = new long[table.bucketSize() + 1];
+        for (int b = 0; b < table.capacity(); b++) {
+            int n = 0;
+            for (int s = 0; s < table.bucketSize(); s++) {
+                if (table.fingerprint(b, s) != BucketTable.NULL_FINGERPRINT) {
+                    n++;
+                }
+            }
+            res[n]++;
+        }
+        return res;
+    }
+
+    /**
+     * Returns the sampled latency histogram of {@link #INSERT}, {@link #LOOKUP}
+     * ({@code get} and {@code contains}) or {@link #DELETE}, in nanoseconds.
+     */
+    public long[] latencyHistogram(int op) {
+        return this.latencies[op].clone();
+    }
+
+    public double meanNanos(int op) {
+        long count = this.latencyCounts[op];
+        return count == 0 ? 0.0 : (double) this.latencySums[op] / count;
+    }
+
+    /**
+     * Returns an upper bound of the {@code quantile} latency of {@code op}, the
+     * top of the histogram bin it falls in, or 0 if nothing was sampled yet.
+     */
+    public long percentileNanos(int op, double quantile) {
+        long[] bins = this.latencies[op];
+        long total = 0;
+        for (long n : bins) {
+            total += n;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < bins.length; i++) {
+            seen += bins[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public double getMeanInsertNanos() {
+        return meanNanos(INSERT);
+    }
+
+    @Override
+    public double getMeanLookupNanos() {
+        return meanNanos(LOOKUP);
+    }
+
+    @Override
+    public double getMeanDeleteNanos() {
+        return meanNanos(DELETE);
+    }
+
+    @Override
+    public long getInsertP99Nanos() {
+        return percentileNanos(INSERT, 0.99);
+    }
+
+    @Override
+    public long getLookupP99Nanos() {
+        return percentileNanos(LOOKUP, 0.99);
+    }
+
+    @Override
+    public long getDeleteP99Nanos() {
+        return percentileNanos(DELETE, 0.99);
+    }
+}
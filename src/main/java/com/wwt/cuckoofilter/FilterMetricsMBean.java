@@ -0,0 +1,38 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * JMX view of a {@link FilterMetrics}.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 20:50
+ */
+public interface FilterMetricsMBean {
+
+    int getCapacity();
+
+    long getSize();
+
+    double getLoadFactor();
+
+    long getInserts();
+
+    long getFailedInserts();
+
+    long getStashedInserts();
+
+    long[] getKickChainHistogram();
+
+    long[] getBucketOccupancy();
+
+    double getMeanInsertNanos();
+
+    double getMeanLookupNanos();
+
+    double getMeanDeleteNanos();
+
+    long getInsertP99Nanos();
+
+    long getLookupP99Nanos();
+
+    long getDeleteP99Nanos();
+}
@@ -0,0 +1,259 @@
+package com.wwt.cuckoofilter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable, read-only copy of a {@link CuckooFilter}, made by
+ * {@link CuckooFilter#freeze()} once a filter is fully built. It answers exactly
+ * as the filter did at the time and is safe to share between threads without
+ * locking.
+ * <p>
+ * Fingerprints keep their buckets, bit-packed into one {@code long[]}, so a
+ * lookup still reads both candidate buckets directly with SWAR compares, one
+ * per bucket whenever the bucket fits into 64 bits, and does nothing else: no
+ * table dispatch, metrics or stash branch. What a frozen filter drops is
+ * storage for what may change: values are kept densely for the occupied slots
+ * only, found by the rank of the slot in a per-64-slot occupancy word, or not
+ * kept at all if every value is 0.0.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 00:20
+ */
+public final class FrozenCuckooFilter {
+
+    private final int capacity;
+    private final int bucketSize;
+    private final int slotShift;
+    //一组bucket共64个slot, 正好一个long的占用位
+    private final int groupShift;
+    private final int groupMask;
+    private final int fingerprintBits;
+    private final int[] altMasks;
+    private final HashStrategy hashStrategy;
+    private final int size;
+    private final long[] fingerprints;
+    //SWAR一次比较的slot数: 整个bucket, 放不进64位时减半
+    private final int lanes;
+    private final long laneMask;
+    private final long ones;
+    private final long low;
+    private final long high;
+    //一次读的位不跨word
+    private final boolean aligned;
+    //每组两个long: 占用的slot位, 和该组之前的entry数; 没有value时为null
+    private final long[] groups;
+    private final double[] values;
+    private final int[] stashBuckets;
+    private final int[] stashFingerprints;
+    private final double[] stashValues;
+
+    FrozenCuckooFilter(CuckooFilter filter) {
+        BucketTable table = filter.table();
+        this.capacity = table.capacity();
+        this.fingerprintBits = table.fingerprintBits();
+        this.altMasks = filter.altMasks();
+        this.hashStrategy = filter.hashStrategy();
+        this.size = filter.size();
+        this.bucketSize = table.bucketSize();
+        this.slotShift = Integer.numberOfTrailingZeros(this.bucketSize);
+        this.groupShift = 6 - this.slotShift;
+        this.groupMask = (1 << this.groupShift) - 1;
+        int w = this.fingerprintBits;
+        this.lanes = Math.min(this.bucketSize, Integer.highestOneBit(64 / w));
+        this.laneMask = -1L >>> (64 - this.lanes * w);
+        this.ones = Bits.ones(w, this.lanes);
+        this.low = this.ones * ((1L << (w - 1)) - 1);
+        this.high = this.ones << (w - 1);
+        this.aligned = 64 % (this.lanes * w) == 0;
+
+        //多一个word, 让read()总能读后一个word
+        this.fingerprints = new long[(int) (((long) this.capacity * this.bucketSize * w + 63) >>> 6) + 1];
+        long[] groups = new long[((this.capacity + this.groupMask) >>> this.groupShift) << 1];
+        double[] values = new double[table.size()];
+        boolean nonzero = false;
+        int n = 0;
+        for (int b = 0; b < this.capacity; b++) {
+            int g = (b >>> this.groupShift) << 1;
+            if ((b & this.groupMask) == 0) {
+                groups[g + 1] = n;
+            }
+            for (int s = 0; s < this.bucketSize; s++) {
+                int f = table.fingerprint(b, s);
+                if (f == BucketTable.NULL_FINGERPRINT) {
+                    continue;
+                }
+                Bits.write(this.fingerprints, ((long) b * this.bucketSize + s) * w, (1L << w) - 1, f);
+                groups[g] |= 1L << (((b & this.groupMask) << this.slotShift) + s);
+                values[n] = table.value(b, s);
+                nonzero |= values[n] != 0.0;
+                n++;
+            }
+        }
+        this.groups = nonzero ? groups : null;
+        this.values = nonzero ? values : null;
+
+        Stash stash = filter.stash();
+        int stashed = stash == null ? 0 : stash.size();
+        this.stashBuckets = new int[stashed];
+        this.stashFingerprints = new int[stashed];
+        this.stashValues = new double[stashed];
+        for (int i = 0; i < stashed; i++) {
+            this.stashBuckets[i] = stash.bucket(i);
+            this.stashFingerprints[i] = stash.fingerprint(i);
+            this.stashValues[i] = stash.value(i);
+        }
+    }
+
+    public boolean contains(Object key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean contains(long key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean contains(CharSequence key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean contains(byte[] key, int offset, int length) {
+        return containsHash(this.hashStrategy.hash(key, offset, length));
+    }
+
+    public boolean contains(ByteBuffer key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    boolean containsHash(long h) {
+        int f = CuckooFilter.fingerprintOf(h, this.fingerprintBits);
+        int p1 = (int) h & (this.capacity - 1);
+        int p2 = altIndex(p1, f);
+        long pattern = (f & 0xFFFFFFFFL) * this.ones;
+        //两个bucket都读, 不短路, 两次内存访问可以重叠
+        long t = zeroLanes(read(p1, 0) ^ pattern) | zeroLanes(read(p2, 0) ^ pattern);
+        for (int s = this.lanes; s < this.bucketSize; s += this.lanes) {
+            t |= zeroLanes(read(p1, s) ^ pattern) | zeroLanes(read(p2, s) ^ pattern);
+        }
+        return t != 0 || this.stashBuckets.length != 0 && stashIndexOf(p1, p2, f) >= 0;
+    }
+
+    /**
+     * Returns the value stored with {@code key}, or 0.0 if it is absent.
+     */
+    public double get(Object key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    public double get(long key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    public double get(CharSequence key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    public double get(byte[] key, int offset, int length) {
+        return getHash(this.hashStrategy.hash(key, offset, length));
+    }
+
+    public double get(ByteBuffer key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    double getHash(long h) {
+        int f = CuckooFilter.fingerprintOf(h, this.fingerprintBits);
+        int p1 = (int) h & (this.capacity - 1);
+        int p2 = altIndex(p1, f);
+        //与CuckooFilter一样取第一个匹配的slot, 不取最大值, 负数value不丢
+        int s = indexOf(p1, f);
+        if (s >= 0) {
+            return value(p1, s);
+        }
+        s = indexOf(p2, f);
+        if (s >= 0) {
+            return value(p2, s);
+        }
+        int i = this.stashBuckets.length == 0 ? -1 : stashIndexOf(p1, p2, f);
+        return i < 0 ? 0.0 : this.stashValues[i];
+    }
+
+    /**
+     * Returns the number of fingerprints in this filter.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public int fingerprintBits() {
+        return this.fingerprintBits;
+    }
+
+    public HashStrategy hashStrategy() {
+        return this.hashStrategy;
+    }
+
+    private int altIndex(int p, int f) {
+        return p ^ (CuckooFilter.mix(f) & this.altMasks[f & (this.altMasks.length - 1)]);
+    }
+
+    /**
+     * Returns the slot of {@code f} in bucket {@code b}, or -1.
+     */
+    private int indexOf(int b, int f) {
+        long pattern = (f & 0xFFFFFFFFL) * this.ones;
+        for (int s = 0; s < this.bucketSize; s += this.lanes) {
+            long t = zeroLanes(read(b, s) ^ pattern);
+            if (t != 0) {
+                return s + Long.numberOfTrailingZeros(t) / this.fingerprintBits;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the top bit of every slot lane of {@code x} that is zero, see
+     * {@link Bits#firstZeroLane}.
+     */
+    private long zeroLanes(long x) {
+        return ~(((x & this.low) + this.low) | x | this.low) & this.high;
+    }
+
+    /**
+     * Returns {@link #lanes} fingerprints of bucket {@code b} from slot {@code s} on,
+     * one per lane. Bits that may span two words are read through the padding
+     * word at the end, with a split shift that turns the second read into a
+     * no-op when they do not.
+     */
+    private long read(int b, int s) {
+        long pos = ((long) b * this.bucketSize + s) * this.fingerprintBits;
+        int word = (int) (pos >>> 6);
+        int shift = (int) pos & 63;
+        long x = this.fingerprints[word] >>> shift;
+        if (!this.aligned) {
+            x |= (this.fingerprints[word + 1] << 1) << (63 - shift);
+        }
+        return x & this.laneMask;
+    }
+
+    /**
+     * Returns the value in slot {@code s} of bucket {@code b}: the entry index is
+     * the number of occupied slots before it.
+     */
+    private double value(int b, int s) {
+        if (s < 0 || this.values == null) {
+            return 0.0;
+        }
+        int g = (b >>> this.groupShift) << 1;
+        long before = this.groups[g] & ((1L << (((b & this.groupMask) << this.slotShift) + s)) - 1);
+        return this.values[(int) this.groups[g + 1] + Long.bitCount(before)];
+    }
+
+    private int stashIndexOf(int p1, int p2, int f) {
+        for (int i = 0; i < this.stashBuckets.length; i++) {
+            if (this.stashFingerprints[i] == f && (this.stashBuckets[i] == p1 || this.stashBuckets[i] == p2)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,123 @@
+package com.wwt.cuckoofilter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns a key into the single 64-bit hash a {@link CuckooFilter} takes both the
+ * bucket index (low bits) and the fingerprint (top bits) from, so each key is
+ * hashed exactly once per operation.
+ * <p>
+ * A filter must always be used with the strategy it was filled with; snapshots
+ * record {@link #id()} and refuse to load under a strategy with another id.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 23:10
+ */
+public abstract class HashStrategy {
+
+    private static final HashStrategy MURMUR = new Murmur(Hashes.SEED);
+
+    public abstract long hash(long key);
+
+    public abstract long hash(byte[] bytes, int offset, int length);
+
+    public abstract long hash(CharSequence chars);
+
+    /**
+     * Hashes the remaining bytes of {@code buffer} without moving its position,
+     * the same as {@link #hash(byte[], int, int)} over those bytes.
+     */
+    public long hash(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return hash(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return hash(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Dispatches on the runtime type of {@code key}, so a key hashes the same
+     * whether passed as a primitive, boxed, or as {@code Object}; any other key
+     * falls back to its {@code hashCode()}.
+     */
+    public long hash(Object key) {
+        return Hashes.hash(this, key);
+    }
+
+    /**
+     * Identifies this strategy, including its seed, in persisted filters.
+     */
+    public abstract long id();
+
+    /**
+     * Returns whether this is a {@link #murmur(long)} strategy, which a snapshot
+     * can be reloaded with from its id alone.
+     */
+    boolean isMurmur() {
+        return false;
+    }
+
+    /**
+     * Returns whether {@code other} hashes keys the same way as far as its id tells,
+     * the same check a snapshot makes on reload.
+     */
+    boolean sameAs(HashStrategy other) {
+        return other == this || other.id() == id() && other.isMurmur() == isMurmur();
+    }
+
+    /**
+     * The default: MurmurHash64A over byte and character sequences and the
+     * MurmurHash3 finalizer over numbers.
+     */
+    public static HashStrategy murmur() {
+        return MURMUR;
+    }
+
+    /**
+     * {@link #murmur()} with another seed, e.g. a secret one so that keys cannot
+     * be crafted to collide. The id is the seed.
+     */
+    public static HashStrategy murmur(long seed) {
+        return seed == Hashes.SEED ? MURMUR : new Murmur(seed);
+    }
+
+    private static final class Murmur extends HashStrategy {
+
+        private final long seed;
+
+        Murmur(long seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public long hash(long key) {
+            return Hashes.hash(this.seed, key);
+        }
+
+        @Override
+        public long hash(byte[] bytes, int offset, int length) {
+            return Hashes.hash(this.seed, bytes, offset, length);
+        }
+
+        @Override
+        public long hash(CharSequence chars) {
+            return Hashes.hash(this.seed, chars);
+        }
+
+        @Override
+        public long hash(ByteBuffer buffer) {
+            return Hashes.hash(this.seed, buffer);
+        }
+
+        @Override
+        public long id() {
+            return this.seed;
+        }
+
+        @Override
+        boolean isMurmur() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.wwt.cuckoofilter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 64-bit key hashes behind {@link HashStrategy#murmur(long)}. Numbers, byte
+ * sequences and character sequences are hashed from their raw content, so a key
+ * hashes the same whether it is passed as a primitive, boxed, or as
+ * {@code Object}; any other key falls back to its {@code hashCode()}.
+ * <p>
+ * Byte and character sequences use MurmurHash64A, numbers the MurmurHash3
+ * 64-bit finalizer, all seeded; {@link HashStrategy#murmur()} uses {@link #SEED}.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 15:10
+ */
+final class Hashes {
+
+    static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long M = 0xC6A4A7935BD1E995L;
+    private static final int R = 47;
+
+    private Hashes() {
+    }
+
+    /**
+     * Dispatches on the runtime type of {@code key} to the matching method of
+     * {@code strategy}; the one place {@link HashStrategy#hash(Object)} of every
+     * strategy goes through.
+     */
+    static long hash(HashStrategy strategy, Object key) {
+        if (key instanceof CharSequence) {
+            return strategy.hash((CharSequence) key);
+        }
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return strategy.hash(((Number) key).longValue());
+        }
+        if (key instanceof byte[]) {
+            byte[] bytes = (byte[]) key;
+            return strategy.hash(bytes, 0, bytes.length);
+        }
+        if (key instanceof ByteBuffer) {
+            return strategy.hash((ByteBuffer) key);
+        }
+        return strategy.hash((long) key.hashCode());
+    }
+
+    static long hash(long seed, long key) {
+        long h = key ^ seed;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static long hash(long seed, byte[] bytes, int offset, int length) {
+        long h = seed ^ (length * M);
+        int end = offset + (length & ~7);
+        for (int i = offset; i < end; i += 8) {
+            long k = (bytes[i] & 0xFFL)
+                    | (bytes[i + 1] & 0xFFL) << 8
+                    | (bytes[i + 2] & 0xFFL) << 16
+                    | (bytes[i + 3] & 0xFFL) << 24
+                    | (bytes[i + 4] & 0xFFL) << 32
+                    | (bytes[i + 5] & 0xFFL) << 40
+                    | (bytes[i + 6] & 0xFFL) << 48
+                    | (bytes[i + 7] & 0xFFL) << 56;
+            h = mixIn(h, k);
+        }
+        if ((length & 7) != 0) {
+            long k = 0;
+            for (int i = offset + length - 1; i >= end; i--) {
+                k = k << 8 | (bytes[i] & 0xFFL);
+            }
+            h ^= k;
+            h *= M;
+        }
+        return finish(h);
+    }
+
+    /**
+     * Hashes the remaining bytes of {@code buffer} without moving its position.
+     */
+    static long hash(long seed, ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return hash(seed, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        ByteBuffer b = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int length = b.remaining();
+        long h = seed ^ (length * M);
+        while (b.remaining() >= 8) {
+            h = mixIn(h, b.getLong());
+        }
+        if (b.hasRemaining()) {
+            long k = 0;
+            for (int i = b.limit() - 1; i >= b.position(); i--) {
+                k = k << 8 | (b.get(i) & 0xFFL);
+            }
+            h ^= k;
+            h *= M;
+        }
+        return finish(h);
+    }
+
+    /**
+     * Hashes the UTF-16 code units of {@code chars}, four to a 64-bit word.
+     */
+    static long hash(long seed, CharSequence chars) {
+        int length = chars.length();
+        long h = seed ^ ((long) length * 2 * M);
+        int end = length & ~3;
+        for (int i = 0; i < end; i += 4) {
+            long k = chars.charAt(i)
+                    | (long) chars.charAt(i + 1) << 16
+                    | (long) chars.charAt(i + 2) << 32
+                    | (long) chars.charAt(i + 3) << 48;
+            h = mixIn(h, k);
+        }
+        if (end < length) {
+            long k = 0;
+            for (int i = length - 1; i >= end; i--) {
+                k = k << 16 | chars.charAt(i);
+            }
+            h ^= k;
+            h *= M;
+        }
+        return finish(h);
+    }
+
+    private static long mixIn(long h, long k) {
+        k *= M;
+        k ^= k >>> R;
+        k *= M;
+        h ^= k;
+        h *= M;
+        return h;
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> R;
+        h *= M;
+        h ^= h >>> R;
+        return h;
+    }
+}
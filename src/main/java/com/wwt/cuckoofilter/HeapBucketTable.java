@@ -0,0 +1,88 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Arrays;
+
+/**
+ * On-heap {@link BucketTable}. The four 8-bit fingerprints of a bucket are packed
+ * into one {@code int}, slot {@code s} in bits {@code [8s, 8s + 8)}, and values
+ * live in a parallel {@code double[]} at index {@code b * BUCKET_SIZE + s}.
+ * <p>
+ * A bucket is probed with SWAR: the fingerprint is repeated into all four byte
+ * lanes, xor-ed with the bucket word and the first zero byte gives the slot, so
+ * there is no per-slot loop or branch. {@link #containsEither} checks both
+ * buckets of a key in one 64-bit word.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 10:12
+ */
+public class HeapBucketTable extends BucketTable {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+    //单个bucket只有低32位的4个lane
+    private static final long LOW32 = 0x7F7F7F7FL;
+    private static final long HIGH32 = 0x80808080L;
+
+    private final int[] fingerprints;
+    private final double[] values;
+    private int size;
+
+    public HeapBucketTable(int capacity) {
+        super(capacity);
+        long slots = (long) capacity * BUCKET_SIZE;
+        this.fingerprints = new int[capacity];
+        this.values = new double[(int) slots];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    protected void addSize(int delta) {
+        this.size += delta;
+    }
+
+    @Override
+    public int fingerprintBits() {
+        return 8;
+    }
+
+    @Override
+    public int fingerprint(int bucket, int slot) {
+        return (this.fingerprints[bucket] >>> (slot << 3)) & 0xFF;
+    }
+
+    @Override
+    public double value(int bucket, int slot) {
+        return this.values[bucket * BUCKET_SIZE + slot];
+    }
+
+    @Override
+    public void set(int bucket, int slot, int f, double value) {
+        int shift = slot << 3;
+        this.fingerprints[bucket] = (this.fingerprints[bucket] & ~(0xFF << shift)) | (f & 0xFF) << shift;
+        this.values[bucket * BUCKET_SIZE + slot] = value;
+    }
+
+    @Override
+    public int indexOf(int bucket, int f) {
+        long x = (this.fingerprints[bucket] ^ (f & 0xFF) * 0x01010101) & 0xFFFFFFFFL;
+        return Bits.firstZeroLane(x, LOW32, HIGH32, 8);
+    }
+
+    @Override
+    public boolean containsEither(int bucket1, int bucket2, int f) {
+        long x = (this.fingerprints[bucket1] & 0xFFFFFFFFL | (long) this.fingerprints[bucket2] << 32) ^ (f & 0xFF) * ONES;
+        return Bits.firstZeroLane(x, LOW, HIGH, 8) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.fingerprints, 0);
+        Arrays.fill(this.values, 0.0);
+        this.size = 0;
+    }
+}
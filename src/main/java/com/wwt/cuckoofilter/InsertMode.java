@@ -0,0 +1,24 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * How a {@link CuckooFilter} makes room when both buckets of a new key are full.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 16:40
+ */
+public enum InsertMode {
+
+    /**
+     * Kick a random entry to its alternate bucket, up to 500 times. Cheap on a
+     * lightly loaded table but has a long latency tail near saturation.
+     */
+    RANDOM_WALK,
+
+    /**
+     * Search breadth-first for the shortest chain of at most five moves that ends
+     * in an empty slot, then apply it; keys that still do not fit go to a small
+     * overflow stash. Insert latency stays bounded up to about 95% load.
+     * The stash lives on the heap and is not persisted by a mapped table.
+     */
+    BREADTH_FIRST
+}
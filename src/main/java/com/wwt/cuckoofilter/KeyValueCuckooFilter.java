@@ -0,0 +1,244 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Key-value view of a {@link CuckooFilter} whose lookups say whether a key was
+ * {@link Lookup.Status#FOUND found}, {@link Lookup.Status#ABSENT absent} or
+ * {@link Lookup.Status#AMBIGUOUS ambiguous}, so a stored 0.0 is told apart from
+ * a missing key and a fingerprint collision no longer returns another key's
+ * value without notice.
+ * <p>
+ * Keys only collide when they share both fingerprint and bucket pair, which
+ * the filter sees at insert time. Only then are check bits kept: each later
+ * key of the same fingerprint and pair is recorded in a side table with
+ * {@code checkBits} more bits of its hash and its value, while the first one
+ * keeps its plain slot. A lookup that hits such a group picks the entries whose
+ * check bits match, or else the first key; more bits make picking the wrong
+ * one of a group less likely, at about 2<sup>-checkBits</sup>, and cost memory
+ * only per collision. With no check bits a group whose values differ is always
+ * ambiguous.
+ * <p>
+ * Like {@link CuckooFilter} this class is not thread-safe, and entries must go
+ * through it, not through the wrapped filter.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 01:50
+ */
+public class KeyValueCuckooFilter {
+
+    private final CuckooFilter filter;
+    private final HashStrategy hashStrategy;
+    private final int fingerprintBits;
+    private final int checkBits;
+    //(较小的bucket, fingerprint) -> 冲突组
+    private final Map<Long, Group> groups = new HashMap<>();
+
+    /**
+     * @param checkBits hash bits kept per colliding entry, from 0 to 32; they come from
+     *                  the hash bits between the fingerprint and the bucket index
+     */
+    public KeyValueCuckooFilter(CuckooFilter filter, int checkBits) {
+        int bits = filter.table().fingerprintBits();
+        int indexBits = Integer.numberOfTrailingZeros(filter.table().capacity());
+        if (checkBits < 0 || checkBits > 32 || bits + checkBits + indexBits > 64) {
+            throw new IllegalArgumentException("Check bits must be in [0, 32] and fit the hash: " + checkBits);
+        }
+        this.filter = filter;
+        this.hashStrategy = filter.hashStrategy();
+        this.fingerprintBits = bits;
+        this.checkBits = checkBits;
+    }
+
+    public boolean insert(Object key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(long key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    private boolean insertHash(long h, double value) {
+        Long group = groupOf(h);
+        Group g = this.groups.get(group);
+        //插入前只有一个同fingerprint的entry时, 匹配的slot就是它
+        boolean collides = g != null || this.filter.containsHash(h);
+        double first = g == null && collides ? this.filter.valueHash(h) : 0.0;
+        if (!this.filter.insertHash(h, value)) {
+            return false;
+        }
+        if (collides) {
+            if (g == null) {
+                g = new Group(first);
+                this.groups.put(group, g);
+            }
+            g.add(check(h), value);
+        }
+        return true;
+    }
+
+    public Lookup lookup(Object key) {
+        return lookupHash(this.hashStrategy.hash(key));
+    }
+
+    public Lookup lookup(long key) {
+        return lookupHash(this.hashStrategy.hash(key));
+    }
+
+    private Lookup lookupHash(long h) {
+        if (!this.filter.containsHash(h)) {
+            return Lookup.ABSENT;
+        }
+        Group g = this.groups.isEmpty() ? null : this.groups.get(groupOf(h));
+        if (g == null) {
+            return Lookup.found(this.filter.valueHash(h));
+        }
+        return g.lookup(check(h), this.checkBits == 0);
+    }
+
+    /**
+     * Deletes one entry of {@code key}, which must have been inserted. Without
+     * check bits the entries of a group cannot be told apart, so once one is
+     * deleted from a group whose values differ, the rest of the group stays
+     * ambiguous until it is gone.
+     */
+    public boolean delete(Object key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean delete(long key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean deleteHash(long h) {
+        if (!this.filter.deleteHash(h)) {
+            return false;
+        }
+        Long group = groupOf(h);
+        Group g = this.groups.get(group);
+        if (g == null) {
+            return true;
+        }
+        int left = g.remove(check(h), this.checkBits == 0);
+        if (left == 0) {
+            this.groups.remove(group);
+        } else if (left == 1 && !g.ambiguous) {
+            //只剩一个entry, 把它的value写回剩下的slot, 不再需要校验位
+            this.filter.setValueHash(h, g.remaining());
+            this.groups.remove(group);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of entries that carry check bits.
+     */
+    public int checkedEntries() {
+        int n = 0;
+        for (Group g : this.groups.values()) {
+            n += g.size;
+        }
+        return n;
+    }
+
+    public CuckooFilter filter() {
+        return this.filter;
+    }
+
+    private Long groupOf(long h) {
+        int f = CuckooFilter.fingerprintOf(h, this.fingerprintBits);
+        int p1 = this.filter.index(h);
+        int p2 = this.filter.altIndex(p1, f);
+        return (long) Math.min(p1, p2) << 32 | (f & 0xFFFFFFFFL);
+    }
+
+    private int check(long h) {
+        if (this.checkBits == 0) {
+            return 0;
+        }
+        return (int) (h >>> (64 - this.fingerprintBits - this.checkBits)) & (int) ((1L << this.checkBits) - 1);
+    }
+
+    /**
+     * Entries sharing one fingerprint and bucket pair: the first key, which has no
+     * check bits, and the later ones with theirs.
+     */
+    private static final class Group {
+
+        private boolean hasFirst = true;
+        //删除时认不出是哪个entry, 剩下的value都不可信
+        private boolean ambiguous;
+        private double first;
+        private int size;
+        private int[] checks = new int[2];
+        private double[] values = new double[2];
+
+        Group(double first) {
+            this.first = first;
+        }
+
+        void add(int check, double value) {
+            if (this.size == this.checks.length) {
+                this.checks = Arrays.copyOf(this.checks, this.size * 2);
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.checks[this.size] = check;
+            this.values[this.size] = value;
+            this.size++;
+        }
+
+        Lookup lookup(int check, boolean unchecked) {
+            if (this.ambiguous) {
+                return Lookup.AMBIGUOUS;
+            }
+            boolean any = false;
+            double value = 0.0;
+            for (int i = 0; i < this.size; i++) {
+                if (unchecked || this.checks[i] == check) {
+                    if (any && this.values[i] != value) {
+                        return Lookup.AMBIGUOUS;
+                    }
+                    any = true;
+                    value = this.values[i];
+                }
+            }
+            if (unchecked && this.hasFirst && any && this.first != value) {
+                return Lookup.AMBIGUOUS;
+            }
+            if (any) {
+                return Lookup.found(value);
+            }
+            return this.hasFirst ? Lookup.found(this.first) : Lookup.ABSENT;
+        }
+
+        /**
+         * Removes the entry with {@code check}, or the first key if none has it.
+         *
+         * @return the number of entries left
+         */
+        int remove(int check, boolean unchecked) {
+            if (unchecked && !this.ambiguous && lookup(check, true) == Lookup.AMBIGUOUS) {
+                this.ambiguous = true;
+            }
+            for (int i = 0; i < this.size; i++) {
+                if (this.checks[i] == check) {
+                    this.size--;
+                    this.checks[i] = this.checks[this.size];
+                    this.values[i] = this.values[this.size];
+                    return this.size + (this.hasFirst ? 1 : 0);
+                }
+            }
+            this.hasFirst = false;
+            return this.size;
+        }
+
+        /**
+         * Returns the value of the only entry left.
+         */
+        double remaining() {
+            return this.hasFirst ? this.first : this.values[0];
+        }
+    }
+}
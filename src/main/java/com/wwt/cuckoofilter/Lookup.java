@@ -0,0 +1,66 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * Result of a {@link KeyValueCuckooFilter#lookup key-value lookup}: whether the
+ * key was found, and its value if so.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 01:50
+ */
+public final class Lookup {
+
+    public enum Status {
+
+        /**
+         * One value matched the key. As with any filter lookup, an absent key is
+         * still found with the filter's false-positive rate.
+         */
+        FOUND,
+
+        /**
+         * No fingerprint matched the key; it was certainly never inserted.
+         */
+        ABSENT,
+
+        /**
+         * Several entries with different values matched the key and its check
+         * bits could not tell them apart.
+         */
+        AMBIGUOUS
+    }
+
+    static final Lookup ABSENT = new Lookup(Status.ABSENT, 0.0);
+    static final Lookup AMBIGUOUS = new Lookup(Status.AMBIGUOUS, 0.0);
+
+    private final Status status;
+    private final double value;
+
+    private Lookup(Status status, double value) {
+        this.status = status;
+        this.value = value;
+    }
+
+    static Lookup found(double value) {
+        return new Lookup(Status.FOUND, value);
+    }
+
+    public Status status() {
+        return this.status;
+    }
+
+    public boolean isFound() {
+        return this.status == Status.FOUND;
+    }
+
+    /**
+     * Returns the value found, 0.0 unless {@link #isFound()}.
+     */
+    public double value() {
+        return this.value;
+    }
+
+    @Override
+    public String toString() {
+        return this.status == Status.FOUND ? "FOUND(" + this.value + ")" : this.status.name();
+    }
+}
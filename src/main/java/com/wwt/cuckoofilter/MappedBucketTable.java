@@ -0,0 +1,234 @@
+package com.wwt.cuckoofilter;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap {@link BucketTable} backed by a memory-mapped file. Opening an
+ * existing file only maps it, so a filter of any size is back in service in
+ * milliseconds without re-inserting its keys; pages are faulted in lazily as
+ * buckets are touched.
+ * <p>
+ * The file is little-endian and laid out as a {@value #HEADER_SIZE}-byte header,
+ * one fingerprint byte per slot, then one {@code double} per slot starting at
+ * the next 8-byte boundary. Both regions are mapped in segments of
+ * {@code 1 << 30} bytes so tables larger than 2GB work. The occupied-slot count
+ * lives in the header and is updated in place, so it survives a process crash
+ * together with the buckets.
+ * <p>
+ * Numbers, strings and byte sequences hash from their content; any other key
+ * must have a {@code hashCode()} that is stable across processes for a reopened
+ * filter to find it.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 11:20
+ */
+public class MappedBucketTable extends BucketTable {
+
+    private static final int MAGIC = 0x434B4F4F;
+    //2: 对偶bucket改用乘法mix, 位置与1不兼容
+    private static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int BUCKET_SIZE_OFFSET = 12;
+    private static final int FINGERPRINT_BITS_OFFSET = 16;
+    //BucketLayout的ordinal, 旧文件这里是0即SPREAD
+    private static final int LAYOUT_OFFSET = 20;
+    private static final int SIZE_OFFSET = 24;
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] fingerprints;
+    private final MappedByteBuffer[] values;
+
+    private MappedBucketTable(FileChannel channel, int capacity) throws IOException {
+        super(capacity);
+        this.channel = channel;
+        long slots = (long) capacity * BUCKET_SIZE;
+        this.header = map(channel, 0, HEADER_SIZE);
+        this.fingerprints = mapSegments(channel, HEADER_SIZE, slots);
+        this.values = mapSegments(channel, valuesOffset(capacity), slots * 8);
+    }
+
+    private static long valuesOffset(int capacity) {
+        return (HEADER_SIZE + (long) capacity * BUCKET_SIZE + 7) & ~7L;
+    }
+
+    /**
+     * Returns the length of a table file with {@code capacity} buckets.
+     */
+    private static long fileLength(int capacity) {
+        return valuesOffset(capacity) + (long) capacity * BUCKET_SIZE * 8;
+    }
+
+    /**
+     * Creates a new, empty table file with {@code capacity} buckets. The file
+     * must not exist yet.
+     */
+    public static MappedBucketTable create(Path file, int capacity) throws IOException {
+        return create(file, capacity, BucketLayout.SPREAD);
+    }
+
+    /**
+     * Creates a new, empty table file for a filter with the given bucket layout,
+     * which is recorded in the header.
+     *
+     * @param capacity a power of two, at most {@code 2^28}
+     */
+    public static MappedBucketTable create(Path file, int capacity, BucketLayout layout) throws IOException {
+        if (!validCapacity(capacity)) {
+            throw new IllegalArgumentException("Capacity must be a power of two in [1, " + CuckooFilter.MAXIMUM_CAPACITY + "]: " + capacity);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedBucketTable table = new MappedBucketTable(channel, capacity);
+            table.header.putInt(MAGIC_OFFSET, MAGIC);
+            table.header.putInt(VERSION_OFFSET, VERSION);
+            table.header.putInt(CAPACITY_OFFSET, capacity);
+            table.header.putInt(BUCKET_SIZE_OFFSET, BUCKET_SIZE);
+            table.header.putInt(FINGERPRINT_BITS_OFFSET, 8);
+            table.header.putInt(LAYOUT_OFFSET, layout.ordinal());
+            table.header.putLong(SIZE_OFFSET, 0);
+            return table;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps a table file previously written by {@link #create(Path, int)}.
+     *
+     * @throws IOException if the file is not a table file, was written with a different
+     *                     layout, or its header is corrupt or does not match its length
+     */
+    public static MappedBucketTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a cuckoo filter table: " + file);
+            }
+            MappedByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a cuckoo filter table: " + file);
+            }
+            int layout = header.getInt(LAYOUT_OFFSET);
+            if (header.getInt(VERSION_OFFSET) != VERSION
+                    || header.getInt(BUCKET_SIZE_OFFSET) != BUCKET_SIZE
+                    || header.getInt(FINGERPRINT_BITS_OFFSET) != 8
+                    || layout < 0 || layout >= BucketLayout.values().length) {
+                throw new IOException("Unsupported table layout: " + file);
+            }
+            int capacity = header.getInt(CAPACITY_OFFSET);
+            long size = header.getLong(SIZE_OFFSET);
+            if (!validCapacity(capacity) || size < 0 || size > (long) capacity * BUCKET_SIZE) {
+                throw new IOException("Corrupt table header: capacity " + capacity + ", size " + size + ": " + file);
+            }
+            //READ_WRITE映射超出文件长度会把文件撑大, 截断的文件要先拒绝
+            if (channel.size() < fileLength(capacity)) {
+                throw new IOException("Truncated table file: " + channel.size() + " < " + fileLength(capacity) + " bytes: " + file);
+            }
+            return new MappedBucketTable(channel, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean validCapacity(int capacity) {
+        return capacity > 0 && capacity <= CuckooFilter.MAXIMUM_CAPACITY && Integer.bitCount(capacity) == 1;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static MappedByteBuffer[] mapSegments(FileChannel channel, long offset, long length) throws IOException {
+        int count = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            segments[i] = map(channel, offset + start, Math.min(length - start, 1L << SEGMENT_SHIFT));
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the bucket layout of the filter this table was created for.
+     */
+    public BucketLayout layout() {
+        return BucketLayout.values()[this.header.getInt(LAYOUT_OFFSET)];
+    }
+
+    @Override
+    public int size() {
+        return Math.toIntExact(this.header.getLong(SIZE_OFFSET));
+    }
+
+    @Override
+    protected void addSize(int delta) {
+        this.header.putLong(SIZE_OFFSET, this.header.getLong(SIZE_OFFSET) + delta);
+    }
+
+    @Override
+    public int fingerprintBits() {
+        return 8;
+    }
+
+    @Override
+    public int fingerprint(int bucket, int slot) {
+        long i = (long) bucket * BUCKET_SIZE + slot;
+        return this.fingerprints[(int) (i >>> SEGMENT_SHIFT)].get((int) (i & SEGMENT_MASK)) & 0xFF;
+    }
+
+    @Override
+    public double value(int bucket, int slot) {
+        long i = ((long) bucket * BUCKET_SIZE + slot) << 3;
+        return this.values[(int) (i >>> SEGMENT_SHIFT)].getDouble((int) (i & SEGMENT_MASK));
+    }
+
+    @Override
+    public void set(int bucket, int slot, int f, double value) {
+        long i = (long) bucket * BUCKET_SIZE + slot;
+        this.fingerprints[(int) (i >>> SEGMENT_SHIFT)].put((int) (i & SEGMENT_MASK), (byte) f);
+        i <<= 3;
+        this.values[(int) (i >>> SEGMENT_SHIFT)].putDouble((int) (i & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Forces all mapped pages to the file.
+     */
+    @Override
+    public void flush() throws IOException {
+        for (MappedByteBuffer segment : this.fingerprints) {
+            segment.force();
+        }
+        for (MappedByteBuffer segment : this.values) {
+            segment.force();
+        }
+        this.header.force();
+    }
+
+    /**
+     * Flushes and closes the file. The mapping itself is released when the
+     * table is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        this.channel.close();
+    }
+}
@@ -0,0 +1,159 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Arrays;
+
+/**
+ * On-heap {@link BucketTable} with fingerprints of any width from 4 to 32 bits
+ * and buckets of 2, 4 or 8 slots, bit-packed back to back in a {@code long[]}:
+ * slot {@code s} of bucket {@code b} starts at bit {@code (b * bucketSize + s) * slotBits}.
+ * <p>
+ * Values are kept in a parallel {@code double[]}, or, given a {@link ValueCodec},
+ * encoded and packed right above the fingerprint of their slot, so that
+ * {@code slotBits = fingerprintBits + codec.bits()}.
+ * <p>
+ * Buckets are probed with SWAR: as many slots as fit into 64 bits are read as
+ * one word and their fingerprints compared at once, see {@link Bits#firstZeroLane}.
+ * The number of words per bucket is fixed by the bucket size and slot width, one
+ * whenever {@code bucketSize * slotBits <= 64}, so a probe is a short run of
+ * word compares with no per-slot loop; slots wider than 32 bits are compared
+ * one by one.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 17:30
+ */
+public class PackedBucketTable extends BucketTable {
+
+    private final int fingerprintBits;
+    private final long mask;
+    private final ValueCodec codec;
+    private final long codeMask;
+    private final int slotBits;
+    private final long[] words;
+    private final double[] values;
+    private int size;
+    //SWAR探测用: 一次读probeSlots个slot; probeSlots为0表示slot超过32位, 逐个slot比较
+    private final int probeSlots;
+    private final long probeMask;
+    private final long ones;
+    private final long fingerprintLanes;
+    private final long lowLanes;
+    private final long highLanes;
+
+    public PackedBucketTable(int capacity, int fingerprintBits) {
+        this(capacity, fingerprintBits, null);
+    }
+
+    /**
+     * @param codec how to pack values next to the fingerprints, or null to keep them as doubles
+     */
+    public PackedBucketTable(int capacity, int fingerprintBits, ValueCodec codec) {
+        this(capacity, fingerprintBits, codec, BUCKET_SIZE);
+    }
+
+    /**
+     * @param bucketSize slots per bucket, 2, 4 or 8
+     */
+    public PackedBucketTable(int capacity, int fingerprintBits, ValueCodec codec, int bucketSize) {
+        super(capacity, bucketSize);
+        if (fingerprintBits < 4 || fingerprintBits > 32) {
+            throw new IllegalArgumentException("Fingerprint bits must be in [4, 32]: " + fingerprintBits);
+        }
+        long slots = (long) capacity * bucketSize;
+        this.fingerprintBits = fingerprintBits;
+        this.mask = (1L << fingerprintBits) - 1;
+        this.codec = codec;
+        this.codeMask = codec == null ? 0 : (1L << codec.bits()) - 1;
+        this.slotBits = codec == null ? fingerprintBits : fingerprintBits + codec.bits();
+        this.words = new long[(int) ((slots * this.slotBits + 63) >>> 6)];
+        this.values = codec == null ? new double[(int) slots] : null;
+        int probeSlots = bucketSize;
+        while (probeSlots > 1 && probeSlots * this.slotBits > 64) {
+            probeSlots >>= 1;
+        }
+        this.probeSlots = probeSlots == 1 ? 0 : probeSlots;
+        int probeBits = probeSlots * this.slotBits;
+        this.probeMask = probeBits >= 64 ? -1L : (1L << probeBits) - 1;
+        this.ones = Bits.ones(this.slotBits, probeSlots);
+        this.fingerprintLanes = this.mask * this.ones;
+        this.lowLanes = (this.mask >>> 1) * this.ones;
+        this.highLanes = this.ones << (fingerprintBits - 1);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    protected void addSize(int delta) {
+        this.size += delta;
+    }
+
+    @Override
+    public int fingerprintBits() {
+        return this.fingerprintBits;
+    }
+
+    @Override
+    public int fingerprint(int bucket, int slot) {
+        return (int) Bits.read(this.words, ((long) bucket * this.bucketSize + slot) * this.slotBits, this.mask);
+    }
+
+    @Override
+    public double value(int bucket, int slot) {
+        int i = bucket * this.bucketSize + slot;
+        if (this.codec == null) {
+            return this.values[i];
+        }
+        return this.codec.decode(Bits.read(this.words, (long) i * this.slotBits + this.fingerprintBits, this.codeMask));
+    }
+
+    @Override
+    public int indexOf(int bucket, int f) {
+        if (this.probeSlots == 0) {
+            return super.indexOf(bucket, f);
+        }
+        long pattern = (f & this.mask) * this.ones;
+        long bitPos = (long) bucket * this.bucketSize * this.slotBits;
+        //bucket不超过64位时只循环一次
+        for (int s = 0; s < this.bucketSize; s += this.probeSlots) {
+            long word = Bits.read(this.words, bitPos + (long) s * this.slotBits, this.probeMask);
+            int lane = Bits.firstZeroLane((word ^ pattern) & this.fingerprintLanes, this.lowLanes, this.highLanes, this.slotBits);
+            if (lane >= 0) {
+                return s + lane;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    void checkValue(double value) {
+        if (this.codec != null) {
+            this.codec.encode(value);
+        }
+    }
+
+    @Override
+    public void set(int bucket, int slot, int f, double value) {
+        int i = bucket * this.bucketSize + slot;
+        long bitPos = (long) i * this.slotBits;
+        if (this.codec == null) {
+            Bits.write(this.words, bitPos, this.mask, f & 0xFFFFFFFFL);
+            this.values[i] = value;
+            return;
+        }
+        //先编码再写: 值不能编码时抛异常, slot保持原样. 空slot不编码, 字典里不一定有0.0
+        long code = f == NULL_FINGERPRINT ? 0 : this.codec.encode(value);
+        Bits.write(this.words, bitPos, this.mask, f & 0xFFFFFFFFL);
+        Bits.write(this.words, bitPos + this.fingerprintBits, this.codeMask, code);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.words, 0L);
+        if (this.values != null) {
+            Arrays.fill(this.values, 0.0);
+        }
+        this.size = 0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.wwt.cuckoofilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuckoo filter that grows instead of failing. It chains generations of
+ * {@link CuckooFilter}; inserts go to the newest one, and when that one cannot
+ * place a key a new generation of twice the capacity is added and the key goes
+ * there. Lookups and deletes search every generation, newest first.
+ * <p>
+ * Entries are never moved between generations: a fingerprint does not carry
+ * enough of its key hash to be placed in a table of another size. Each
+ * generation adds its own false positives, so the false-positive rate grows
+ * with the number of generations; size the first one close to the expected
+ * key count and let growth absorb the surprises.
+ * <p>
+ * {@code get} probes each generation once and takes NaN as "not here", so store
+ * values other than NaN.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 16:05
+ */
+public class ScalableCuckooFilter {
+
+    private final List<CuckooFilter> generations = new ArrayList<>();
+    private final HashStrategy hashStrategy;
+    private int nextCapacity;
+
+    public ScalableCuckooFilter(int initialCapacity) {
+        this(initialCapacity, HashStrategy.murmur());
+    }
+
+    /**
+     * @param hashStrategy how keys are hashed, shared by every generation
+     */
+    public ScalableCuckooFilter(int initialCapacity, HashStrategy hashStrategy) {
+        this.hashStrategy = hashStrategy;
+        this.nextCapacity = CuckooFilter.checkCapacity(initialCapacity);
+        grow();
+    }
+
+    public boolean insert(Object key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    public boolean insert(long key, double value) {
+        return insertHash(this.hashStrategy.hash(key), value);
+    }
+
+    private boolean insertHash(long h, double value) {
+        if (newest().insertHash(h, value)) {
+            return true;
+        }
+        //最新一代已满, 加一代新的, 容量翻倍
+        grow();
+        return newest().insertHash(h, value);
+    }
+
+    public double get(Object key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    public double get(long key) {
+        return getHash(this.hashStrategy.hash(key));
+    }
+
+    private double getHash(long h) {
+        for (int i = this.generations.size() - 1; i >= 0; i--) {
+            CuckooFilter generation = this.generations.get(i);
+            //一次探测: 没有匹配时返回NaN
+            double value = generation.getHash(h, Double.NaN);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return 0.0;
+    }
+
+    public boolean contains(Object key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean contains(long key) {
+        return containsHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean containsHash(long h) {
+        for (int i = this.generations.size() - 1; i >= 0; i--) {
+            if (this.generations.get(i).containsHash(h)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes one fingerprint of {@code key}, which must have been inserted before.
+     */
+    public boolean delete(Object key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    public boolean delete(long key) {
+        return deleteHash(this.hashStrategy.hash(key));
+    }
+
+    private boolean deleteHash(long h) {
+        for (int i = this.generations.size() - 1; i >= 0; i--) {
+            if (this.generations.get(i).deleteHash(h)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of fingerprints over all generations.
+     */
+    public int size() {
+        int size = 0;
+        for (CuckooFilter generation : this.generations) {
+            size += generation.size();
+        }
+        return size;
+    }
+
+    public HashStrategy hashStrategy() {
+        return this.hashStrategy;
+    }
+
+    public int generations() {
+        return this.generations.size();
+    }
+
+    private CuckooFilter newest() {
+        return this.generations.get(this.generations.size() - 1);
+    }
+
+    private void grow() {
+        this.generations.add(new CuckooFilter(new HeapBucketTable(this.nextCapacity),
+                InsertMode.RANDOM_WALK, BucketLayout.SPREAD, this.hashStrategy));
+        this.nextCapacity = Math.min(this.nextCapacity << 1, CuckooFilter.MAXIMUM_CAPACITY);
+    }
+}
@@ -0,0 +1,185 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Arrays;
+
+/**
+ * Bit-packed {@link BucketTable} using the semi-sorting encoding of the original
+ * cuckoo filter paper, saving one bit per slot.
+ * <p>
+ * The slots of a bucket are kept sorted by fingerprint. The top 4 bits of the
+ * four fingerprints then form a sorted multiset of nibbles, of which there are
+ * only 3876, so they are stored together as a 12-bit code instead of 16 bits;
+ * the remaining {@code fingerprintBits - 4} bits of each fingerprint follow the
+ * code. A bucket thus takes {@code 4 * fingerprintBits - 4} bits. Empty slots
+ * hold fingerprint 0 and sort first.
+ * <p>
+ * Values are kept in a parallel {@code double[]}, or, given a {@link ValueCodec},
+ * encoded and packed into the bucket after the fingerprint suffixes.
+ * <p>
+ * Because of the sorting, every {@link #set} may reorder the slots and values of
+ * the bucket written.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 17:55
+ */
+public class SemiSortedBucketTable extends BucketTable {
+
+    private static final int CODE_BITS = 12;
+    //code -> 升序排列的4个4bit前缀, 第i个前缀在第4i位
+    private static final short[] DECODE = new short[3876];
+    //4个升序前缀 -> code
+    private static final short[] ENCODE = new short[1 << 16];
+
+    static {
+        int code = 0;
+        for (int a = 0; a < 16; a++) {
+            for (int b = a; b < 16; b++) {
+                for (int c = b; c < 16; c++) {
+                    for (int d = c; d < 16; d++) {
+                        int prefixes = a | b << 4 | c << 8 | d << 12;
+                        DECODE[code] = (short) prefixes;
+                        ENCODE[prefixes] = (short) code;
+                        code++;
+                    }
+                }
+            }
+        }
+    }
+
+    private final int fingerprintBits;
+    private final int suffixBits;
+    private final long suffixMask;
+    private final ValueCodec codec;
+    private final long codeMask;
+    private final int bucketBits;
+    private final long[] words;
+    private final double[] values;
+    private int size;
+    //set时重新排序用, 避免分配
+    private final int[] sortF = new int[BUCKET_SIZE];
+    private final double[] sortV = new double[BUCKET_SIZE];
+    private final long[] sortC = new long[BUCKET_SIZE];
+
+    public SemiSortedBucketTable(int capacity, int fingerprintBits) {
+        this(capacity, fingerprintBits, null);
+    }
+
+    /**
+     * @param codec how to pack values into the buckets, or null to keep them as doubles
+     */
+    public SemiSortedBucketTable(int capacity, int fingerprintBits, ValueCodec codec) {
+        super(capacity);
+        if (fingerprintBits < 5 || fingerprintBits > 32) {
+            throw new IllegalArgumentException("Fingerprint bits must be in [5, 32]: " + fingerprintBits);
+        }
+        long slots = (long) capacity * BUCKET_SIZE;
+        this.fingerprintBits = fingerprintBits;
+        this.suffixBits = fingerprintBits - 4;
+        this.suffixMask = (1L << this.suffixBits) - 1;
+        this.codec = codec;
+        this.codeMask = codec == null ? 0 : (1L << codec.bits()) - 1;
+        this.bucketBits = CODE_BITS + BUCKET_SIZE * (codec == null ? this.suffixBits : this.suffixBits + codec.bits());
+        this.words = new long[(int) (((long) capacity * this.bucketBits + 63) >>> 6)];
+        this.values = codec == null ? new double[(int) slots] : null;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    protected void addSize(int delta) {
+        this.size += delta;
+    }
+
+    @Override
+    public int fingerprintBits() {
+        return this.fingerprintBits;
+    }
+
+    @Override
+    public int fingerprint(int bucket, int slot) {
+        long base = (long) bucket * this.bucketBits;
+        int prefixes = DECODE[(int) Bits.read(this.words, base, (1 << CODE_BITS) - 1)];
+        int prefix = (prefixes >>> (slot << 2)) & 0xF;
+        long suffix = Bits.read(this.words, base + CODE_BITS + slot * this.suffixBits, this.suffixMask);
+        return (int) (prefix << this.suffixBits | suffix);
+    }
+
+    @Override
+    public double value(int bucket, int slot) {
+        if (this.codec == null) {
+            return this.values[bucket * BUCKET_SIZE + slot];
+        }
+        return this.codec.decode(Bits.read(this.words, codePosition(bucket, slot), this.codeMask));
+    }
+
+    private long codePosition(int bucket, int slot) {
+        return (long) bucket * this.bucketBits + CODE_BITS
+                + BUCKET_SIZE * this.suffixBits + slot * this.codec.bits();
+    }
+
+    @Override
+    void checkValue(double value) {
+        if (this.codec != null) {
+            this.codec.encode(value);
+        }
+    }
+
+    @Override
+    public void set(int bucket, int slot, int f, double value) {
+
+        int first = bucket * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            this.sortF[i] = i == slot ? f : fingerprint(bucket, i);
+            if (this.codec == null) {
+                this.sortV[i] = i == slot ? value : this.values[first + i];
+            } else {
+                //先编码新值: 不能编码时抛异常, bucket还没动. 其他slot直接搬原来的code
+                //空slot不编码, 字典里不一定有0.0
+                this.sortC[i] = i != slot ? Bits.read(this.words, codePosition(bucket, i), this.codeMask)
+                        : f == NULL_FINGERPRINT ? 0 : this.codec.encode(value);
+            }
+        }
+
+        //按无符号大小插入排序, 32位fingerprint的最高位是符号位
+        for (int i = 1; i < BUCKET_SIZE; i++) {
+            int kf = this.sortF[i];
+            double kv = this.sortV[i];
+            long kc = this.sortC[i];
+            int j = i - 1;
+            while (j >= 0 && (this.sortF[j] ^ Integer.MIN_VALUE) > (kf ^ Integer.MIN_VALUE)) {
+                this.sortF[j + 1] = this.sortF[j];
+                this.sortV[j + 1] = this.sortV[j];
+                this.sortC[j + 1] = this.sortC[j];
+                j--;
+            }
+            this.sortF[j + 1] = kf;
+            this.sortV[j + 1] = kv;
+            this.sortC[j + 1] = kc;
+        }
+
+        long base = (long) bucket * this.bucketBits;
+        int prefixes = 0;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            prefixes |= (this.sortF[i] >>> this.suffixBits) << (i << 2);
+            Bits.write(this.words, base + CODE_BITS + i * this.suffixBits, this.suffixMask, this.sortF[i]);
+            if (this.codec == null) {
+                this.values[first + i] = this.sortV[i];
+            } else {
+                Bits.write(this.words, codePosition(bucket, i), this.codeMask, this.sortC[i]);
+            }
+        }
+        Bits.write(this.words, base, (1 << CODE_BITS) - 1, ENCODE[prefixes]);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.words, 0L);
+        if (this.values != null) {
+            Arrays.fill(this.values, 0.0);
+        }
+        this.size = 0;
+    }
+}
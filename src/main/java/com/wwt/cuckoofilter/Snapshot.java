@@ -0,0 +1,467 @@
+package com.wwt.cuckoofilter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of a {@link CuckooFilter}. All numbers are little-endian; the
+ * layout is
+ * <pre>
+ *   header      {@value #HEADER_SIZE} bytes, see the *_OFFSET constants
+ *   stash       (int bucket, int fingerprint, double value) per stashed entry
+ *   fingerprints one fingerprintBits-wide field per slot, bit-packed into 64-bit words
+ *   values      one double per slot, only if FLAG_VALUES is set
+ *   checksum    CRC32 of everything before it, as an int
+ * </pre>
+ * Every region starts 8-byte aligned, so a loaded buffer can be used in place by
+ * a {@link BufferBucketTable}. A filter whose values are all 0.0 is written
+ * without the values region.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 19:30
+ */
+final class Snapshot {
+
+    private static final int MAGIC = 0x53464B43;
+    //2: 对偶bucket改用乘法mix, 位置与1不兼容
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int BUCKET_SIZE_OFFSET = 12;
+    private static final int FINGERPRINT_BITS_OFFSET = 16;
+    private static final int FLAGS_OFFSET = 20;
+    private static final int HASH_ID_OFFSET = 24;
+    private static final int SIZE_OFFSET = 32;
+    private static final int STASH_SIZE_OFFSET = 40;
+
+    private static final int FLAG_VALUES = 1;
+    private static final int FLAG_BREADTH_FIRST = 2;
+    private static final int FLAG_BLOCKED = 4;
+    private static final int FLAG_CUSTOM_HASH = 8;
+
+    private static final int STASH_ENTRY_SIZE = 16;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private Snapshot() {
+    }
+
+    static void write(CuckooFilter filter, WritableByteChannel channel) throws IOException {
+
+        BucketTable table = filter.table();
+        Stash stash = filter.stash();
+        int capacity = table.capacity();
+        int bucketSize = table.bucketSize();
+        int bits = table.fingerprintBits();
+        int stashSize = stash == null ? 0 : stash.size();
+        boolean hasValues = hasValues(table, stash);
+
+        Output out = new Output(channel);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(capacity);
+        out.putInt(bucketSize);
+        out.putInt(bits);
+        out.putInt((hasValues ? FLAG_VALUES : 0) | (stash != null ? FLAG_BREADTH_FIRST : 0)
+                | (filter.layout() == BucketLayout.BLOCKED ? FLAG_BLOCKED : 0)
+                | (filter.hashStrategy().isMurmur() ? 0 : FLAG_CUSTOM_HASH));
+        out.putLong(filter.hashStrategy().id());
+        out.putLong(table.size());
+        out.putInt(stashSize);
+        for (int i = STASH_SIZE_OFFSET + 4; i < HEADER_SIZE; i += 4) {
+            out.putInt(0);
+        }
+
+        for (int i = 0; i < stashSize; i++) {
+            out.putInt(stash.bucket(i));
+            out.putInt(stash.fingerprint(i));
+            out.putDouble(stash.value(i));
+        }
+
+        //按Bits的布局从低位到高位拼成64位的word
+        long acc = 0;
+        int accBits = 0;
+        for (int b = 0; b < capacity; b++) {
+            for (int s = 0; s < bucketSize; s++) {
+                long f = table.fingerprint(b, s) & 0xFFFFFFFFL;
+                acc |= f << accBits;
+                accBits += bits;
+                if (accBits >= 64) {
+                    out.putLong(acc);
+                    accBits -= 64;
+                    acc = accBits == 0 ? 0 : f >>> (bits - accBits);
+                }
+            }
+        }
+        if (accBits > 0) {
+            out.putLong(acc);
+        }
+
+        if (hasValues) {
+            for (int b = 0; b < capacity; b++) {
+                for (int s = 0; s < bucketSize; s++) {
+                    out.putDouble(table.value(b, s));
+                }
+            }
+        }
+
+        out.finish();
+    }
+
+    private static boolean hasValues(BucketTable table, Stash stash) {
+        int bucketSize = table.bucketSize();
+        for (int i = 0; stash != null && i < stash.size(); i++) {
+            if (Double.doubleToRawLongBits(stash.value(i)) != 0) {
+                return true;
+            }
+        }
+        for (int b = 0; b < table.capacity(); b++) {
+            for (int s = 0; s < bucketSize; s++) {
+                if (Double.doubleToRawLongBits(table.value(b, s)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads a snapshot into a new heap filter, 8-bit fingerprints in buckets of
+     * four going to a {@link HeapBucketTable} and anything else to a {@link PackedBucketTable}.
+     * Exactly the bytes of the snapshot are consumed from {@code channel}.
+     */
+    static CuckooFilter read(ReadableByteChannel channel, HashStrategy hashStrategy) throws IOException {
+
+        CRC32 crc = new CRC32();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header);
+        crc.update(header.array(), 0, HEADER_SIZE);
+        Layout layout = new Layout(header, 0);
+
+        Input in = new Input(channel, crc, layout.checksumOffset - HEADER_SIZE);
+        int bits = layout.fingerprintBits;
+        int bucketSize = layout.bucketSize;
+        BucketTable table = bits == 8 && bucketSize == BucketTable.BUCKET_SIZE
+                ? new HeapBucketTable(layout.capacity) : new PackedBucketTable(layout.capacity, bits, null, bucketSize);
+        CuckooFilter filter = new CuckooFilter(table, layout.mode, layout.layout, layout.hashStrategy(hashStrategy));
+
+        for (int i = 0; i < layout.stashSize; i++) {
+            int bucket = in.getInt();
+            int f = in.getInt();
+            filter.stash().add(bucket, f, in.getDouble());
+        }
+
+        long mask = (1L << bits) - 1;
+        long acc = 0;
+        int accBits = 0;
+        int size = 0;
+        for (int b = 0; b < layout.capacity; b++) {
+            for (int s = 0; s < bucketSize; s++) {
+                long f;
+                if (accBits >= bits) {
+                    f = acc & mask;
+                    acc >>>= bits;
+                    accBits -= bits;
+                } else {
+                    long word = in.getLong();
+                    f = (acc | word << accBits) & mask;
+                    acc = word >>> (bits - accBits);
+                    accBits += 64 - bits;
+                }
+                table.set(b, s, (int) f, 0.0);
+                if (f != BucketTable.NULL_FINGERPRINT) {
+                    size++;
+                }
+            }
+        }
+
+        if (layout.hasValues) {
+            for (int b = 0; b < layout.capacity; b++) {
+                for (int s = 0; s < bucketSize; s++) {
+                    double value = in.getDouble();
+                    int f = table.fingerprint(b, s);
+                    if (f != BucketTable.NULL_FINGERPRINT) {
+                        table.set(b, s, f, value);
+                    }
+                }
+            }
+        }
+
+        ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, trailer);
+        if (trailer.getInt(0) != (int) crc.getValue()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        if (size != layout.size) {
+            throw new IOException("Snapshot size mismatch: header says " + layout.size + ", found " + size);
+        }
+        table.addSize(size);
+        return filter;
+    }
+
+    /**
+     * Wraps a snapshot starting at the position of {@code buffer} without copying
+     * the slots, see {@link BufferBucketTable}; the filter is read-only. The
+     * buffer's position and limit are left unchanged.
+     */
+    static CuckooFilter read(ByteBuffer buffer, HashStrategy hashStrategy) throws IOException {
+
+        ByteBuffer b = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = b.position();
+        if (b.remaining() < HEADER_SIZE) {
+            throw new IOException("Not a cuckoo filter snapshot");
+        }
+        Layout layout = new Layout(b, start);
+        HashStrategy strategy = layout.hashStrategy(hashStrategy);
+        if (layout.checksumOffset + 4 > Integer.MAX_VALUE - start) {
+            throw new IOException("Snapshot of " + (layout.checksumOffset + 4) + " bytes does not fit a ByteBuffer");
+        }
+        if (b.remaining() < layout.checksumOffset + 4) {
+            throw new IOException("Truncated snapshot: " + b.remaining() + " < " + (layout.checksumOffset + 4) + " bytes");
+        }
+        int checksumOffset = (int) layout.checksumOffset;
+        if (b.getInt(start + checksumOffset) != (int) checksum(b, start, checksumOffset)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+
+        BufferBucketTable table = new BufferBucketTable(layout.capacity, layout.bucketSize, layout.fingerprintBits,
+                region(b, start + layout.fingerprintsOffset, layout.fingerprintsLength),
+                layout.hasValues ? region(b, start + layout.valuesOffset, layout.valuesLength) : null,
+                (int) layout.size);
+        CuckooFilter filter = new CuckooFilter(table, layout.mode, layout.layout, strategy);
+        for (int i = 0; i < layout.stashSize; i++) {
+            int at = start + HEADER_SIZE + i * STASH_ENTRY_SIZE;
+            filter.stash().add(b.getInt(at), b.getInt(at + 4), b.getDouble(at + 8));
+        }
+        return filter;
+    }
+
+    private static ByteBuffer region(ByteBuffer buffer, long offset, long length) {
+        ByteBuffer b = buffer.duplicate();
+        b.limit((int) (offset + length));
+        b.position((int) offset);
+        return b.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        if (buffer.hasArray()) {
+            crc.update(buffer.array(), buffer.arrayOffset() + offset, length);
+            return crc.getValue();
+        }
+        //direct/mapped buffer: 分块拷出来算, 只为校验
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, length)];
+        ByteBuffer b = buffer.duplicate();
+        b.limit(offset + length);
+        b.position(offset);
+        while (b.hasRemaining()) {
+            int n = Math.min(chunk.length, b.remaining());
+            b.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        return crc.getValue();
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated snapshot");
+            }
+        }
+    }
+
+    /**
+     * Header fields and the region offsets they imply, validated against this build.
+     */
+    private static final class Layout {
+
+        final int capacity;
+        final int bucketSize;
+        final int fingerprintBits;
+        final boolean hasValues;
+        final InsertMode mode;
+        final BucketLayout layout;
+        final long hashId;
+        final boolean customHash;
+        final long size;
+        final int stashSize;
+        final long fingerprintsOffset;
+        final long fingerprintsLength;
+        final long valuesOffset;
+        final long valuesLength;
+        final long checksumOffset;
+
+        Layout(ByteBuffer header, int start) throws IOException {
+            if (header.getInt(start + MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a cuckoo filter snapshot");
+            }
+            int version = header.getInt(start + VERSION_OFFSET);
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            this.capacity = header.getInt(start + CAPACITY_OFFSET);
+            this.fingerprintBits = header.getInt(start + FINGERPRINT_BITS_OFFSET);
+            int flags = header.getInt(start + FLAGS_OFFSET);
+            this.size = header.getLong(start + SIZE_OFFSET);
+            this.stashSize = header.getInt(start + STASH_SIZE_OFFSET);
+            this.bucketSize = header.getInt(start + BUCKET_SIZE_OFFSET);
+            this.hashId = header.getLong(start + HASH_ID_OFFSET);
+            this.customHash = (flags & FLAG_CUSTOM_HASH) != 0;
+            if (this.capacity <= 0 || Integer.bitCount(this.capacity) != 1
+                    || this.bucketSize != 2 && this.bucketSize != 4 && this.bucketSize != 8
+                    || this.fingerprintBits < 4 || this.fingerprintBits > 32
+                    || this.stashSize < 0 || this.stashSize > Stash.STASH_SIZE
+                    || this.stashSize != 0 && (flags & FLAG_BREADTH_FIRST) == 0) {
+                throw new IOException("Corrupt snapshot header");
+            }
+            long slots = (long) this.capacity * this.bucketSize;
+            if (slots > BucketTable.MAXIMUM_SLOTS) {
+                throw new IOException("Corrupt snapshot header: " + slots + " slots exceed " + BucketTable.MAXIMUM_SLOTS);
+            }
+            if (this.size < 0 || this.size > slots) {
+                throw new IOException("Corrupt snapshot header: size " + this.size + " exceeds " + slots + " slots");
+            }
+            this.hasValues = (flags & FLAG_VALUES) != 0;
+            this.mode = (flags & FLAG_BREADTH_FIRST) != 0 ? InsertMode.BREADTH_FIRST : InsertMode.RANDOM_WALK;
+            this.layout = (flags & FLAG_BLOCKED) != 0 ? BucketLayout.BLOCKED : BucketLayout.SPREAD;
+            this.fingerprintsOffset = HEADER_SIZE + (long) this.stashSize * STASH_ENTRY_SIZE;
+            this.fingerprintsLength = ((slots * this.fingerprintBits + 63) >>> 6) << 3;
+            this.valuesOffset = this.fingerprintsOffset + this.fingerprintsLength;
+            this.valuesLength = this.hasValues ? slots << 3 : 0;
+            this.checksumOffset = this.valuesOffset + this.valuesLength;
+        }
+
+        /**
+         * Returns the strategy to load the snapshot with, checking {@code given}
+         * if there is one.
+         */
+        HashStrategy hashStrategy(HashStrategy given) throws IOException {
+            if (given == null) {
+                if (this.customHash) {
+                    throw new IOException("Snapshot was written with a custom hash strategy, pass it to readFrom");
+                }
+                return HashStrategy.murmur(this.hashId);
+            }
+            if (given.id() != this.hashId || given.isMurmur() == this.customHash) {
+                throw new IOException("Snapshot was written with a different hash strategy");
+            }
+            return given;
+        }
+    }
+
+    /**
+     * Buffers little-endian writes to a channel, checksumming them on the way.
+     */
+    private static final class Output {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            this.buffer.putInt(v);
+        }
+
+        void putLong(long v) throws IOException {
+            ensure(8);
+            this.buffer.putLong(v);
+        }
+
+        void putDouble(double v) throws IOException {
+            ensure(8);
+            this.buffer.putDouble(v);
+        }
+
+        private void ensure(int n) throws IOException {
+            if (this.buffer.remaining() < n) {
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            this.crc.update(this.buffer.array(), 0, this.buffer.position());
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * Writes out what is buffered followed by the checksum.
+         */
+        void finish() throws IOException {
+            drain();
+            this.buffer.putInt((int) this.crc.getValue());
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+
+    /**
+     * Buffers little-endian reads of exactly {@code length} bytes from a channel,
+     * checksumming them on the way.
+     */
+    private static final class Input {
+
+        private final ReadableByteChannel channel;
+        private final CRC32 crc;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long left;
+
+        Input(ReadableByteChannel channel, CRC32 crc, long length) {
+            this.channel = channel;
+            this.crc = crc;
+            this.left = length;
+            this.buffer.limit(0);
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return this.buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(8);
+            return this.buffer.getLong();
+        }
+
+        double getDouble() throws IOException {
+            ensure(8);
+            return this.buffer.getDouble();
+        }
+
+        private void ensure(int n) throws IOException {
+            if (this.buffer.remaining() >= n) {
+                return;
+            }
+            this.buffer.compact();
+            int from = this.buffer.position();
+            //不多读, 流里snapshot后面的数据留给调用方
+            this.buffer.limit((int) Math.min(this.buffer.capacity(), from + this.left));
+            while (this.buffer.position() < n) {
+                if (!this.buffer.hasRemaining() || this.channel.read(this.buffer) < 0) {
+                    throw new EOFException("Truncated snapshot");
+                }
+            }
+            this.crc.update(this.buffer.array(), from, this.buffer.position() - from);
+            this.left -= this.buffer.position() - from;
+            this.buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * Small overflow area for entries that found no slot in the table. An entry is
+ * kept with one of its two buckets, which is enough to match it from either.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 16:40
+ */
+final class Stash {
+
+    static final int STASH_SIZE = 16;
+
+    private final int[] fingerprints = new int[STASH_SIZE];
+    private final int[] buckets = new int[STASH_SIZE];
+    private final double[] values = new double[STASH_SIZE];
+    private int size;
+
+    int size() {
+        return this.size;
+    }
+
+    int bucket(int i) {
+        return this.buckets[i];
+    }
+
+    int fingerprint(int i) {
+        return this.fingerprints[i];
+    }
+
+    double value(int i) {
+        return this.values[i];
+    }
+
+    boolean add(int bucket, int f, double value) {
+        if (this.size == STASH_SIZE) {
+            return false;
+        }
+        this.fingerprints[this.size] = f;
+        this.buckets[this.size] = bucket;
+        this.values[this.size] = value;
+        this.size++;
+        return true;
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    boolean contains(int p1, int p2, int f) {
+        return find(p1, p2, f) >= 0;
+    }
+
+    /**
+     * Returns the value stored with {@code f}, or {@code absent} if there is none.
+     */
+    double get(int p1, int p2, int f, double absent) {
+        int i = find(p1, p2, f);
+        return i < 0 ? absent : this.values[i];
+    }
+
+    boolean delete(int p1, int p2, int f) {
+        int i = find(p1, p2, f);
+        if (i < 0) {
+            return false;
+        }
+        remove(i);
+        return true;
+    }
+
+    /**
+     * Replaces the value of an entry matching {@code f} from either bucket.
+     */
+    boolean set(int p1, int p2, int f, double value) {
+        int i = find(p1, p2, f);
+        if (i < 0) {
+            return false;
+        }
+        this.values[i] = value;
+        return true;
+    }
+
+    /**
+     * Moves stashed entries back into the table where one of their buckets has room.
+     */
+    void drain(CuckooFilter filter, BucketTable table) {
+        for (int i = this.size - 1; i >= 0; i--) {
+            int f = this.fingerprints[i];
+            int p1 = this.buckets[i];
+            if (table.add(p1, f, this.values[i]) || table.add(filter.altIndex(p1, f), f, this.values[i])) {
+                remove(i);
+            }
+        }
+    }
+
+    private int find(int p1, int p2, int f) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.fingerprints[i] == f && (this.buckets[i] == p1 || this.buckets[i] == p2)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes entry {@code i}; the last entry takes its place, so remove while
+     * walking from the end.
+     */
+    void remove(int i) {
+        this.size--;
+        this.fingerprints[i] = this.fingerprints[this.size];
+        this.buckets[i] = this.buckets[this.size];
+        this.values[i] = this.values[this.size];
+    }
+}
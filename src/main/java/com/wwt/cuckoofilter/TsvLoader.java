@@ -0,0 +1,362 @@
+package com.wwt.cuckoofilter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk-loads a UTF-8 file of {@code key<TAB>value} lines into a filter. The file
+ * is cut into chunks of about {@value #CHUNK_SIZE} bytes on line boundaries; each
+ * chunk is memory-mapped and parsed by a fork-join task that hashes keys and
+ * parses values straight from the mapped bytes, without building strings or
+ * collections, so files far larger than the heap load on all cores.
+ * <p>
+ * Keys hash exactly as the same {@code String} passed to {@code insert} or
+ * {@code contains} would. Empty lines are skipped and a trailing {@code '\r'} is
+ * dropped; a line without a tab or with an unparsable value fails the load with
+ * an {@link IOException}, keys of the lines before it may already be inserted.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 20:10
+ */
+public final class TsvLoader {
+
+    private static final int CHUNK_SIZE = 1 << 26;
+    //一个chunk里攒这么多条再加锁插入CuckooFilter
+    private static final int BATCH_SIZE = 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private TsvLoader() {
+    }
+
+    /**
+     * Loads {@code file} into {@code filter} using all available processors.
+     * Parsing runs in parallel; since a {@link CuckooFilter} is not thread-safe,
+     * the parsed entries are inserted in batches while holding its monitor.
+     *
+     * @return the number of entries inserted; lines for which the filter was full are not counted
+     */
+    public static long load(Path file, CuckooFilter filter) throws IOException {
+        return load(file, new FilterSink(filter), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads {@code file} into {@code filter} using all available processors,
+     * every task inserting directly.
+     *
+     * @return the number of entries inserted; lines for which the filter was full are not counted
+     */
+    public static long load(Path file, ConcurrentCuckooFilter filter) throws IOException {
+        return load(file, new ConcurrentSink(filter), Runtime.getRuntime().availableProcessors());
+    }
+
+    public static long load(Path file, CuckooFilter filter, int parallelism) throws IOException {
+        return load(file, new FilterSink(filter), parallelism);
+    }
+
+    public static long load(Path file, ConcurrentCuckooFilter filter, int parallelism) throws IOException {
+        return load(file, new ConcurrentSink(filter), parallelism);
+    }
+
+    private static long load(Path file, Sink sink, int parallelism) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = split(channel);
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                return pool.invoke(new LoadTask(channel, bounds, 0, bounds.length - 1, sink));
+            } catch (LoadException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Returns chunk boundaries, each the start of a line, from 0 to the file size.
+     */
+    private static long[] split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunks = (int) Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        long[] bounds = new long[chunks + 1];
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        int n = 1;
+        for (int i = 1; i < chunks; i++) {
+            //从名义边界往后找第一个换行
+            long pos = Math.max((long) i * CHUNK_SIZE, bounds[n - 1]);
+            long next = -1;
+            while (next < 0 && pos < size) {
+                probe.clear();
+                int read = channel.read(probe, pos);
+                if (read <= 0) {
+                    break;
+                }
+                for (int j = 0; j < read; j++) {
+                    if (probe.get(j) == '\n') {
+                        next = pos + j + 1;
+                        break;
+                    }
+                }
+                pos += read;
+            }
+            if (next < 0 || next >= size) {
+                break;
+            }
+            bounds[n++] = next;
+        }
+        bounds[n++] = size;
+        long[] res = new long[n];
+        System.arraycopy(bounds, 0, res, 0, n);
+        return res;
+    }
+
+    /**
+     * Parses a decimal number. Plain numbers of at most 15 significant digits and
+     * 22 fraction digits take a fast exact path, anything else goes through
+     * {@link Double#parseDouble}.
+     */
+    static double parseDouble(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean any = false;
+        boolean dot = false;
+        boolean plain = i < to;
+        for (; i < to; i++) {
+            int c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (mantissa != 0 || c != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) {
+                    scale++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                plain = false;
+                break;
+            }
+        }
+        if (plain && any && digits <= 15 && scale < POWERS_OF_TEN.length) {
+            double v = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -v : v;
+        }
+        byte[] bytes = new byte[to - from];
+        for (int j = 0; j < bytes.length; j++) {
+            bytes[j] = buffer.get(from + j);
+        }
+        return Double.parseDouble(new String(bytes, UTF_8).trim());
+    }
+
+    /**
+     * Where parsed entries go; {@link #insert} is called by several tasks at once.
+     */
+    private interface Sink {
+
+        HashStrategy hashStrategy();
+
+        /**
+         * @return the number of entries inserted
+         */
+        int insert(long[] hashes, double[] values, int n);
+    }
+
+    private static final class FilterSink implements Sink {
+
+        private final CuckooFilter filter;
+
+        FilterSink(CuckooFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public HashStrategy hashStrategy() {
+            return this.filter.hashStrategy();
+        }
+
+        @Override
+        public int insert(long[] hashes, double[] values, int n) {
+            int inserted = 0;
+            synchronized (this.filter) {
+                for (int i = 0; i < n; i++) {
+                    if (this.filter.insertHash(hashes[i], values[i])) {
+                        inserted++;
+                    }
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static final class ConcurrentSink implements Sink {
+
+        private final ConcurrentCuckooFilter filter;
+
+        ConcurrentSink(ConcurrentCuckooFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public HashStrategy hashStrategy() {
+            return this.filter.hashStrategy();
+        }
+
+        @Override
+        public int insert(long[] hashes, double[] values, int n) {
+            int inserted = 0;
+            for (int i = 0; i < n; i++) {
+                if (this.filter.insertHash(hashes[i], values[i])) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        }
+    }
+
+    /**
+     * Carries an {@link IOException} out of a fork-join task.
+     */
+    private static final class LoadException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LoadException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Loads the chunks {@code [lo, hi)}, halving the range until one chunk is left.
+     */
+    //只在fork-join池里用, 不会被序列化; FileChannel字段本来也序列化不了
+    @SuppressWarnings("serial")
+    private static final class LoadTask extends RecursiveTask<Long> {
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int lo;
+        private final int hi;
+        private final Sink sink;
+
+        LoadTask(FileChannel channel, long[] bounds, int lo, int hi, Sink sink) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+            this.sink = sink;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.hi - this.lo > 1) {
+                int mid = (this.lo + this.hi) >>> 1;
+                LoadTask left = new LoadTask(this.channel, this.bounds, this.lo, mid, this.sink);
+                left.fork();
+                long right = new LoadTask(this.channel, this.bounds, mid, this.hi, this.sink).compute();
+                return left.join() + right;
+            }
+            try {
+                return loadChunk(this.bounds[this.lo], this.bounds[this.hi]);
+            } catch (IOException e) {
+                throw new LoadException(e);
+            }
+        }
+
+        private long loadChunk(long start, long end) throws IOException {
+
+            MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            CharsetDecoder decoder = UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = CharBuffer.allocate(256);
+            long[] hashes = new long[BATCH_SIZE];
+            double[] values = new double[BATCH_SIZE];
+            int n = 0;
+            long inserted = 0;
+
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                int tab = -1;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    if (tab < 0 && buffer.get(lineEnd) == '\t') {
+                        tab = lineEnd;
+                    }
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > lineStart) {
+                    if (tab < 0) {
+                        throw new IOException("Missing tab in line at byte " + (start + lineStart));
+                    }
+                    chars = decode(decoder, buffer, lineStart, tab, chars);
+                    hashes[n] = this.sink.hashStrategy().hash(chars);
+                    try {
+                        values[n] = parseDouble(buffer, tab + 1, lineEnd);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Bad value in line at byte " + (start + lineStart), e);
+                    }
+                    if (++n == BATCH_SIZE) {
+                        inserted += this.sink.insert(hashes, values, n);
+                        n = 0;
+                    }
+                }
+                lineStart = next;
+            }
+
+            return inserted + this.sink.insert(hashes, values, n);
+        }
+
+        /**
+         * Decodes bytes {@code [from, to)} into {@code chars}, growing it if needed,
+         * and returns it flipped for reading.
+         */
+        private static CharBuffer decode(CharsetDecoder decoder, ByteBuffer buffer, int from, int to,
+                                         CharBuffer chars) throws CharacterCodingException {
+            if (chars.capacity() < to - from) {
+                chars = CharBuffer.allocate(Integer.highestOneBit(to - from) << 1);
+            }
+            ByteBuffer key = buffer.duplicate();
+            key.limit(to);
+            key.position(from);
+            chars.clear();
+            decoder.reset();
+            decoder.decode(key, chars, true);
+            decoder.flush(chars);
+            chars.flip();
+            return chars;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.wwt.cuckoofilter;
+
+import java.util.Arrays;
+
+/**
+ * Compresses the values of a key-value filter into a few bits so they can be
+ * packed next to the fingerprints, see {@link PackedBucketTable} and
+ * {@link SemiSortedBucketTable}. Decoding an encoded value and encoding it
+ * again gives back the same code.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/18 18:40
+ */
+public abstract class ValueCodec {
+
+    /**
+     * Returns the number of bits of an encoded value, at most 32.
+     */
+    public abstract int bits();
+
+    public abstract long encode(double value);
+
+    public abstract double decode(long code);
+
+    /**
+     * IEEE 754 half precision: 16 bits, about 3 significant decimal digits,
+     * magnitudes up to 65504.
+     */
+    public static ValueCodec float16() {
+        return new Float16();
+    }
+
+    /**
+     * Values in {@code [min, max]} rounded to a multiple of {@code precision}
+     * above {@code min}, e.g. {@code fixedPoint(0, 100, 0.01)} for scores with
+     * two decimal digits takes 14 bits. Values outside the range are clamped.
+     */
+    public static ValueCodec fixedPoint(double min, double max, double precision) {
+        return new FixedPoint(min, max, precision);
+    }
+
+    /**
+     * Exactly the given values, stored as an index into them; encoding any other
+     * value fails with an {@link IllegalArgumentException}.
+     */
+    public static ValueCodec dictionary(double... values) {
+        return new Dictionary(values);
+    }
+
+    private static final class Float16 extends ValueCodec {
+
+        @Override
+        public int bits() {
+            return 16;
+        }
+
+        @Override
+        public long encode(double value) {
+            int fbits = Float.floatToIntBits((float) value);
+            int sign = fbits >>> 16 & 0x8000;
+            int val = (fbits & 0x7FFFFFFF) + 0x1000;
+            if (val >= 0x47800000) {
+                if ((fbits & 0x7FFFFFFF) >= 0x47800000) {
+                    if (val < 0x7F800000) {
+                        return sign | 0x7C00;
+                    }
+                    return sign | 0x7C00 | (fbits & 0x007FFFFF) >>> 13;
+                }
+                return sign | 0x7BFF;
+            }
+            if (val >= 0x38800000) {
+                return sign | val - 0x38000000 >>> 13;
+            }
+            if (val < 0x33000000) {
+                return sign;
+            }
+            val = (fbits & 0x7FFFFFFF) >>> 23;
+            return sign | ((fbits & 0x7FFFFF | 0x800000) + (0x800000 >>> val - 102) >>> 126 - val);
+        }
+
+        @Override
+        public double decode(long code) {
+            int h = (int) code;
+            int sign = (h & 0x8000) << 16;
+            int exp = h >>> 10 & 0x1F;
+            int mant = h & 0x3FF;
+            if (exp == 0x1F) {
+                return Float.intBitsToFloat(sign | 0x7F800000 | mant << 13);
+            }
+            if (exp == 0) {
+                //非规格化数: mant * 2^-24
+                float f = mant * 0x1p-24f;
+                return sign == 0 ? f : -f;
+            }
+            return Float.intBitsToFloat(sign | (exp + 112) << 23 | mant << 13);
+        }
+    }
+
+    private static final class FixedPoint extends ValueCodec {
+
+        private final double min;
+        private final double precision;
+        private final long maxCode;
+        private final int bits;
+
+        FixedPoint(double min, double max, double precision) {
+            if (!(precision > 0) || !(max >= min)) {
+                throw new IllegalArgumentException("Bad fixed-point range [" + min + ", " + max + "] / " + precision);
+            }
+            this.min = min;
+            this.precision = precision;
+            this.maxCode = (long) Math.ceil((max - min) / precision);
+            this.bits = Math.max(1, 64 - Long.numberOfLeadingZeros(this.maxCode));
+            if (this.bits > 32) {
+                throw new IllegalArgumentException("Fixed-point range needs more than 32 bits: " + this.bits);
+            }
+        }
+
+        @Override
+        public int bits() {
+            return this.bits;
+        }
+
+        @Override
+        public long encode(double value) {
+            long code = Math.round((value - this.min) / this.precision);
+            return Math.max(0, Math.min(this.maxCode, code));
+        }
+
+        @Override
+        public double decode(long code) {
+            return this.min + code * this.precision;
+        }
+    }
+
+    private static final class Dictionary extends ValueCodec {
+
+        private final double[] values;
+        private final int bits;
+
+        Dictionary(double[] values) {
+            if (values.length == 0) {
+                throw new IllegalArgumentException("Empty dictionary");
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int n = 1;
+            for (int i = 1; i < sorted.length; i++) {
+                if (Double.compare(sorted[i], sorted[n - 1]) != 0) {
+                    sorted[n++] = sorted[i];
+                }
+            }
+            this.values = Arrays.copyOf(sorted, n);
+            this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+        }
+
+        @Override
+        public int bits() {
+            return this.bits;
+        }
+
+        @Override
+        public long encode(double value) {
+            int i = Arrays.binarySearch(this.values, value);
+            if (i < 0) {
+                throw new IllegalArgumentException("Value not in dictionary: " + value);
+            }
+            return i;
+        }
+
+        @Override
+        public double decode(long code) {
+            return this.values[(int) code];
+        }
+    }
+}
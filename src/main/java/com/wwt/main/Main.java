@@ -1,11 +1,14 @@
 package com.wwt.main;
 
 import com.wwt.cuckoofilter.CuckooFilter;
+import com.wwt.cuckoofilter.TsvLoader;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -17,30 +20,50 @@ public class Main {
 
     public static void main(String[] args) {
 
-        testCuckooFilter();
+        if (args.length < 1) {
+            System.err.println("Usage: Main <key_value.tsv>");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+
+        testCuckooFilter(file);
 //        System.out.println();
-//        testCuckooFilterOfGithub();
+//        testCuckooFilterOfGithub(file);
         while (true) {
 
         }
     }
 
-    public static void testCuckooFilter() {
+    public static void testCuckooFilter(Path file) {
         CuckooFilter cuckooFilter = new CuckooFilter(1 << 22);
-        Map<String, Double> map = read();
-
-        Set<String> keySet = map.keySet();
-        for (String key : keySet) {
-            cuckooFilter.insert(key, map.get(key));
+        try {
+            TsvLoader.load(file, cuckooFilter);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
         }
 
-        int num = map.size();
+        //再读一遍文件逐行校验, 不在内存里留key; 文件里重复的key按行计数, 值不同的那些行算作取值不对
+        int num = 0;
         int equal = 0;
-        for (String key : keySet) {
-            double value = cuckooFilter.get(key);
-            if (value == map.get(key)) {
-                equal++;
+        int exist = 0;
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] splits = line.split("\t");
+                num++;
+                if (cuckooFilter.get(splits[0]) == Double.parseDouble(splits[1])) {
+                    equal++;
+                }
+                if (cuckooFilter.contains(splits[0])) {
+                    exist++;
+                }
             }
+        } catch (IOException e) {
+            e.printStackTrace();
         }
 
         System.out.println("get Value Rate");
@@ -48,21 +71,15 @@ public class Main {
         System.out.println(equal * 1.0 / num);
         System.out.println();
 
-        equal = 0;
-        for (String key : keySet) {
-            if (cuckooFilter.contains(key)) {
-                equal++;
-            }
-        }
         System.out.println("get Exist Rate");
-        System.out.println(num - equal);
-        System.out.println(equal * 1.0 / num);
+        System.out.println(num - exist);
+        System.out.println(exist * 1.0 / num);
     }
 
-    public static void testCuckooFilterOfGithub() {
+    public static void testCuckooFilterOfGithub(Path file) {
         com.github.cuckoofilter.CuckooFilter cuckooFilter = new com.github.cuckoofilter.CuckooFilter(1 << 20);
 
-        Map<String, Double> map = read();
+        Map<String, Double> map = read(file);
 
         Set<String> keySet = map.keySet();
         for (String key : keySet) {
@@ -95,33 +112,20 @@ public class Main {
         System.out.println(equal * 1.0 / num);
     }
 
-    public static Map<String, Double> read() {
+    public static Map<String, Double> read(Path file) {
 
         Map<String, Double> res = new HashMap<>();
 
-        File file = new File("/Users/weiwentao/key_value.txt");
-        List<String> lines = new ArrayList<>();
-
-        try {
-            FileReader fr = new FileReader(file);
-            BufferedReader br = new BufferedReader(fr);
-
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
             String line;
             while ((line = br.readLine()) != null) {
-                lines.add(line);
+                String[] splits = line.split("\t");
+                res.put(splits[0], Double.parseDouble(splits[1]));
             }
-
-            br.close();
-            fr.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        for (String line : lines) {
-            String[] splits = line.split("\t");
-            res.put(splits[0], Double.parseDouble(splits[1]));
-        }
-
         return res;
     }
 }
@@ -0,0 +1,114 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 13:00
+ */
+public class AdaptiveCuckooFilterTest {
+
+    private static final int INSERTED = 200;
+
+    private static AdaptiveCuckooFilter filled(int maxCorrections) {
+        AdaptiveCuckooFilter adaptive = new AdaptiveCuckooFilter(new CuckooFilter(1 << 6), maxCorrections);
+        for (long i = 0; i < INSERTED; i++) {
+            assertTrue(adaptive.insert(i, i + 1.0));
+        }
+        return adaptive;
+    }
+
+    /**
+     * Returns {@code n} keys that were never inserted but match the filter.
+     */
+    private static long[] falsePositives(AdaptiveCuckooFilter adaptive, int n) {
+        long[] keys = new long[n];
+        int found = 0;
+        for (long key = INSERTED; found < n; key++) {
+            if (adaptive.contains(key)) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    public void reportedKeysAnswerAbsent() {
+        AdaptiveCuckooFilter adaptive = filled(64);
+        long[] fps = falsePositives(adaptive, 20);
+        for (long key : fps) {
+            assertTrue(adaptive.reportFalsePositive(key));
+            assertFalse(adaptive.reportFalsePositive(key));
+        }
+        assertEquals(20, adaptive.corrections());
+        for (long key : fps) {
+            assertFalse(adaptive.contains(key));
+            assertEquals(0.0, adaptive.get(key), 0.0);
+        }
+        for (long i = 0; i < INSERTED; i++) {
+            assertTrue(adaptive.contains(i));
+        }
+    }
+
+    @Test
+    public void reportIgnoresKeysTheFilterRejects() {
+        AdaptiveCuckooFilter adaptive = filled(8);
+        long key = INSERTED;
+        while (adaptive.contains(key)) {
+            key++;
+        }
+        assertFalse(adaptive.reportFalsePositive(key));
+        assertEquals(0, adaptive.corrections());
+    }
+
+    @Test
+    public void insertDropsCorrection() {
+        AdaptiveCuckooFilter adaptive = filled(8);
+        long key = falsePositives(adaptive, 1)[0];
+        adaptive.reportFalsePositive(key);
+        assertTrue(adaptive.insert(key, -3.0));
+        assertEquals(0, adaptive.corrections());
+        assertTrue(adaptive.contains(key));
+    }
+
+    /**
+     * Dropping corrections shifts the rest of their probe runs; the ones left must
+     * still be found.
+     */
+    @Test
+    public void removalKeepsOtherCorrections() {
+        AdaptiveCuckooFilter adaptive = filled(32);
+        long[] fps = falsePositives(adaptive, 32);
+        for (long key : fps) {
+            adaptive.reportFalsePositive(key);
+        }
+        for (int i = 0; i < fps.length; i += 2) {
+            adaptive.insert(fps[i], 1.0);
+        }
+        assertEquals(16, adaptive.corrections());
+        for (int i = 1; i < fps.length; i += 2) {
+            assertFalse(adaptive.contains(fps[i]));
+        }
+    }
+
+    @Test
+    public void evictionKeepsHotCorrections() {
+        AdaptiveCuckooFilter adaptive = filled(4);
+        long[] fps = falsePositives(adaptive, 8);
+        for (int i = 0; i < 4; i++) {
+            adaptive.reportFalsePositive(fps[i]);
+        }
+        for (int i = 4; i < 8; i++) {
+            //每轮都查一次fps[0], 它一直是热的
+            assertFalse(adaptive.contains(fps[0]));
+            assertTrue(adaptive.reportFalsePositive(fps[i]));
+            assertEquals(4, adaptive.corrections());
+        }
+        assertFalse(adaptive.contains(fps[0]));
+        assertFalse(adaptive.contains(fps[7]));
+    }
+}
@@ -0,0 +1,78 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 12:00
+ */
+public class AsyncCuckooFilterTest {
+
+    @Test
+    public void completesOperations() throws Exception {
+        try (AsyncCuckooFilter async = new AsyncCuckooFilter(new CuckooFilter(1 << 10))) {
+            assertTrue(async.insert("a", -2.5).get());
+            assertTrue(async.contains("a").get());
+            assertEquals(-2.5, async.get("a").get(), 0.0);
+            assertTrue(async.delete("a").get());
+            assertFalse(async.contains("a").get());
+        }
+    }
+
+    /**
+     * Requests queued by other threads before {@code close()} must all run, none
+     * may be failed by the shutdown.
+     */
+    @Test
+    public void closeDrainsEarlierRequests() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            CuckooFilter filter = new CuckooFilter(1 << 12);
+            AsyncCuckooFilter async = new AsyncCuckooFilter(filter);
+            List<List<CompletableFuture<Boolean>>> futures = new ArrayList<>();
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                long base = t * 1000L;
+                List<CompletableFuture<Boolean>> own = new ArrayList<>();
+                futures.add(own);
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        own.add(async.insert(base + i, 1.0));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            async.close();
+            for (List<CompletableFuture<Boolean>> own : futures) {
+                for (CompletableFuture<Boolean> future : own) {
+                    assertTrue(future.get());
+                }
+            }
+            assertEquals(4000, filter.size());
+        }
+    }
+
+    @Test
+    public void failsAfterClose() throws InterruptedException {
+        AsyncCuckooFilter async = new AsyncCuckooFilter(new CuckooFilter(1 << 4));
+        async.close();
+        try {
+            async.insert(1L, 1.0).get();
+            fail("Inserted after close");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
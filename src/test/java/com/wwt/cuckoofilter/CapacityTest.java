@@ -0,0 +1,51 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 12:40
+ */
+public class CapacityTest {
+
+    @Test
+    public void filterRejectsCapacityBeyondLimit() {
+        assertEquals(BucketTable.MAXIMUM_SLOTS, CuckooFilter.MAXIMUM_CAPACITY * BucketTable.BUCKET_SIZE);
+        try {
+            new CuckooFilter(CuckooFilter.MAXIMUM_CAPACITY + 1);
+            fail("Accepted more buckets than a table can hold");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(String.valueOf(CuckooFilter.MAXIMUM_CAPACITY)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void filterRejectsZeroCapacity() {
+        new CuckooFilter(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void heapTableRejectsTooManySlots() {
+        new HeapBucketTable(CuckooFilter.MAXIMUM_CAPACITY * 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void concurrentFilterRejectsTooManySlots() {
+        new ConcurrentCuckooFilter(CuckooFilter.MAXIMUM_CAPACITY * 2);
+    }
+
+    @Test
+    public void narrowBucketsAllowMoreBuckets() {
+        //两个slot一个bucket, bucket数可以翻倍; 只检查上限, 不真的分配
+        try {
+            new PackedBucketTable(CuckooFilter.MAXIMUM_CAPACITY * 4, 8, null, 2);
+            fail("Accepted more slots than a table can hold");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(String.valueOf(BucketTable.MAXIMUM_SLOTS / 2)));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * A key's value is the value of the first slot holding its fingerprint, in its
+ * own bucket first, then its alternate bucket, then the stash. Another key with
+ * the same fingerprint in the alternate bucket does not change it.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 14:50
+ */
+public class CollidingFingerprintTest {
+
+    private static final int CAPACITY = 1 << 6;
+    private static final int F = 0x5A;
+
+    private final CuckooFilter filter = new CuckooFilter(new HeapBucketTable(CAPACITY), InsertMode.RANDOM_WALK,
+            BucketLayout.SPREAD, new IdentityHash());
+    private final ConcurrentCuckooFilter concurrent = new ConcurrentCuckooFilter(CAPACITY, 4, new IdentityHash());
+    //同一fingerprint, a在p, b在a的对偶bucket q; b的对偶bucket又是p
+    private final int p = 3;
+    private final int q = this.filter.altIndex(this.p, F);
+    private final long a = IdentityHash.key(F, 8, this.p);
+    private final long b = IdentityHash.key(F, 8, this.q);
+
+    @Test
+    public void eachKeyReadsItsOwnBucketFirst() {
+        assertNotEquals(this.p, this.q);
+        this.filter.insert(this.a, 1.0);
+        this.filter.insert(this.b, 5.0);
+        this.concurrent.insert(this.a, 1.0);
+        this.concurrent.insert(this.b, 5.0);
+
+        //取最大值会让a读到b的5.0
+        assertEquals(1.0, this.filter.get(this.a), 0.0);
+        assertEquals(5.0, this.filter.get(this.b), 0.0);
+        assertArrayEquals(new double[]{1.0, 5.0}, this.filter.getAll(new Object[]{this.a, this.b}), 0.0);
+        FrozenCuckooFilter frozen = this.filter.freeze();
+        assertEquals(1.0, frozen.get(this.a), 0.0);
+        assertEquals(5.0, frozen.get(this.b), 0.0);
+        assertEquals(1.0, this.concurrent.get(this.a), 0.0);
+        assertEquals(5.0, this.concurrent.get(this.b), 0.0);
+    }
+
+    @Test
+    public void negativeValueIsNotLostToAnEmptyBucket() {
+        this.filter.insert(this.a, -3.0);
+        this.concurrent.insert(this.a, -3.0);
+
+        //取最大值会让空的对偶bucket的0.0胜出
+        assertEquals(-3.0, this.filter.get(this.a), 0.0);
+        assertEquals(-3.0, this.filter.freeze().get(this.a), 0.0);
+        assertEquals(-3.0, this.concurrent.get(this.a), 0.0);
+        assertEquals(0.0, this.filter.get(IdentityHash.key(F + 1, 8, this.p)), 0.0);
+    }
+}
@@ -0,0 +1,178 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 16:00
+ */
+public class ConcurrentCuckooFilterTest {
+
+    private static final int CAPACITY = 1 << 12;
+    private static final int THREADS = 4;
+    //94%装载, 写线程一定要走很长的cuckoo路径
+    private static final int FULL = (int) (CAPACITY * BucketTable.BUCKET_SIZE * 0.94);
+
+    private static <T> List<T> runAll(List<Callable<T>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<T> res = new ArrayList<>();
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                res.add(future.get());
+            }
+            return res;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void singleThreadRoundTrip() {
+        ConcurrentCuckooFilter filter = new ConcurrentCuckooFilter(1 << 8, 4);
+        for (long i = 0; i < 900; i++) {
+            assertTrue(filter.insert(i, -i));
+        }
+        assertEquals(900, filter.size());
+        for (long i = 0; i < 900; i++) {
+            assertTrue(filter.contains(i));
+        }
+        for (long i = 0; i < 900; i += 3) {
+            assertTrue(filter.delete(i));
+        }
+        assertEquals(600, filter.size());
+        for (long i = 1; i < 900; i += 3) {
+            assertTrue(filter.contains(i));
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void concurrentInsertsAreAllFound() throws Exception {
+        ConcurrentCuckooFilter filter = new ConcurrentCuckooFilter(CAPACITY, 16);
+        List<Callable<boolean[]>> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            writers.add(() -> {
+                boolean[] stored = new boolean[FULL];
+                for (int i = first; i < FULL; i += THREADS) {
+                    stored[i] = filter.insert((long) i, i);
+                }
+                return stored;
+            });
+        }
+        int stored = 0;
+        for (boolean[] part : runAll(writers)) {
+            for (int i = 0; i < FULL; i++) {
+                if (part[i]) {
+                    stored++;
+                    assertTrue("lost key " + i, filter.contains((long) i));
+                }
+            }
+        }
+        assertEquals(stored, filter.size());
+        assertTrue("stored only " + stored, stored > FULL * 0.99);
+    }
+
+    /**
+     * Writers fill the table from 40% to 94% load, relocating the entries already
+     * there; readers keep checking those entries the whole time and must never miss one.
+     */
+    @Test(timeout = 60_000)
+    public void lookupsDuringRelocationHaveNoFalseNegatives() throws Exception {
+        ConcurrentCuckooFilter filter = new ConcurrentCuckooFilter(CAPACITY, 16);
+        int stable = (int) (CAPACITY * BucketTable.BUCKET_SIZE * 0.4);
+        for (long i = 0; i < stable; i++) {
+            assertTrue(filter.insert(i, i));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = stable + t;
+            tasks.add(() -> {
+                try {
+                    for (long i = first; i < FULL; i += THREADS) {
+                        filter.insert(i, i);
+                    }
+                } finally {
+                    writing.set(false);
+                }
+                return 0L;
+            });
+            tasks.add(() -> {
+                long misses = 0;
+                do {
+                    for (long i = 0; i < stable; i++) {
+                        if (!filter.contains(i)) {
+                            misses++;
+                        }
+                    }
+                } while (writing.get());
+                return misses;
+            });
+        }
+        for (long misses : runAll(tasks)) {
+            assertEquals(0, misses);
+        }
+        assertTrue(filter.size() > FULL * 0.99);
+    }
+
+    @Test(timeout = 60_000)
+    public void concurrentDeletesKeepTheRest() throws Exception {
+        ConcurrentCuckooFilter filter = new ConcurrentCuckooFilter(CAPACITY, 16);
+        int n = (int) (CAPACITY * BucketTable.BUCKET_SIZE * 0.9);
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.insert(i, i));
+        }
+
+        AtomicBoolean deleting = new AtomicBoolean(true);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = 2 * t;
+            //偶数key被删, 奇数key必须一直在; 同时还有写线程补新key
+            tasks.add(() -> {
+                long failed = 0;
+                try {
+                    for (long i = first; i < n; i += 2 * THREADS) {
+                        if (!filter.delete(i)) {
+                            failed++;
+                        }
+                        filter.insert(n + i, i);
+                    }
+                } finally {
+                    deleting.set(false);
+                }
+                return failed;
+            });
+            tasks.add(() -> {
+                long misses = 0;
+                do {
+                    for (long i = 1; i < n; i += 2) {
+                        if (!filter.contains(i)) {
+                            misses++;
+                        }
+                    }
+                } while (deleting.get());
+                return misses;
+            });
+        }
+        for (long count : runAll(tasks)) {
+            assertEquals(0, count);
+        }
+        for (long i = 1; i < n; i += 2) {
+            assertTrue(filter.contains(i));
+        }
+        assertFalse(filter.size() > n);
+    }
+}
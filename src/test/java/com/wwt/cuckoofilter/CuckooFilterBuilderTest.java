@@ -0,0 +1,69 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 10:40
+ */
+public class CuckooFilterBuilderTest {
+
+    @Test
+    public void planMeetsTarget() {
+        CuckooFilterBuilder.Plan plan = CuckooFilter.builder().expectedItems(100_000).falsePositiveRate(0.001).plan();
+        assertTrue(plan.falsePositiveRate() <= 0.001);
+        assertEquals(1, Integer.bitCount(plan.capacity()));
+        assertTrue((long) plan.capacity() * plan.bucketSize() >= 100_000);
+    }
+
+    @Test
+    public void buildHoldsExpectedItems() {
+        CuckooFilter filter = CuckooFilter.builder().expectedItems(20_000).falsePositiveRate(0.01).build();
+        for (long i = 0; i < 20_000; i++) {
+            assertTrue(filter.insert(i, i));
+        }
+        for (long i = 0; i < 20_000; i++) {
+            assertTrue(filter.contains(i));
+        }
+        int hits = 0;
+        for (long i = 20_000; i < 120_000; i++) {
+            if (filter.contains(i)) {
+                hits++;
+            }
+        }
+        assertTrue("false-positive rate " + hits / 100_000.0, hits / 100_000.0 <= 0.01);
+    }
+
+    @Test
+    public void memoryBudgetOnly() {
+        CuckooFilterBuilder.Plan plan = CuckooFilter.builder().expectedItems(10_000)
+                .memoryBudget(64 * 1024).valueCodec(ValueCodec.dictionary(0.0)).plan();
+        assertTrue(plan.memoryBytes() <= 64 * 1024);
+        assertFalse(plan.fingerprintBits() < 4);
+    }
+
+    /**
+     * The largest heap table has 2^30 slots; one more item must not produce a plan
+     * whose rounded-up table {@link CuckooFilterBuilder#build()} cannot allocate.
+     */
+    @Test
+    public void planStopsAtMaximumSlots() {
+        CuckooFilterBuilder.Plan plan = CuckooFilter.builder().expectedItems(1_000_000_000L).falsePositiveRate(0.01).plan();
+        assertTrue((long) plan.capacity() * plan.bucketSize() <= BucketTable.MAXIMUM_SLOTS);
+        try {
+            plan = CuckooFilter.builder().expectedItems(1_100_000_000L).falsePositiveRate(0.01).plan();
+            fail("Planned a table build() cannot allocate: " + plan);
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void planNeedsTargetOrBudget() {
+        CuckooFilter.builder().expectedItems(1000).plan();
+    }
+}
@@ -0,0 +1,67 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 16:20
+ */
+public class CuckooPathTest {
+
+    @Test
+    public void fillsPastNinetyFivePercentWithShortPaths() {
+        CuckooFilter filter = new CuckooFilter(1 << 10, InsertMode.BREADTH_FIRST);
+        int slots = (1 << 10) * BucketTable.BUCKET_SIZE;
+        long n = 0;
+        while (filter.insert(n, -n)) {
+            n++;
+        }
+        //stash之前表本身就要装到95%
+        assertTrue("load " + (double) filter.metrics().getInserts() / slots,
+                filter.metrics().getInserts() - filter.metrics().getStashedInserts() > slots * 0.95);
+        long[] kicks = filter.metrics().getKickChainHistogram();
+        //最多MAX_DEPTH=5步, 落在[4, 8)这一格以内
+        for (int bin = 4; bin < kicks.length; bin++) {
+            assertEquals(0, kicks[bin]);
+        }
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.contains(i));
+        }
+        assertEquals(n, filter.size());
+    }
+
+    @Test
+    public void pathsKeepEveryEntryInItsBuckets() {
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 8, 12), InsertMode.BREADTH_FIRST);
+        long n = 0;
+        while (filter.insert(n, n)) {
+            n++;
+        }
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.contains(i));
+        }
+        //每个entry都在它的key会去找的bucket里, 所以逐个删除能删空
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.delete(i));
+        }
+        assertEquals(0, filter.size());
+        assertEquals(0, filter.entries().count());
+    }
+
+    @Test
+    public void semiSortedBucketsReorderUnderThePath() {
+        //SemiSorted每次写都重新排序bucket, 路径要按fingerprint找entry
+        CuckooFilter filter = new CuckooFilter(new SemiSortedBucketTable(1 << 8, 12), InsertMode.BREADTH_FIRST);
+        long n = 0;
+        while (filter.insert(n, -n)) {
+            n++;
+        }
+        assertTrue(n > (1 << 8) * BucketTable.BUCKET_SIZE * 0.95);
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.contains(i));
+        }
+    }
+}
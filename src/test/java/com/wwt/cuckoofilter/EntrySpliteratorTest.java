@@ -0,0 +1,150 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 13:20
+ */
+public class EntrySpliteratorTest {
+
+    private static CuckooFilter filled(CuckooFilter filter, int n) {
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.insert(i, i));
+        }
+        return filter;
+    }
+
+    private static void splitAll(Spliterator<FilterEntry> spliterator, List<Spliterator<FilterEntry>> parts) {
+        Spliterator<FilterEntry> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            splitAll(prefix, parts);
+            splitAll(spliterator, parts);
+        } else {
+            parts.add(spliterator);
+        }
+    }
+
+    @Test
+    public void splitsCoverEveryEntryOnce() {
+        CuckooFilter filter = filled(new CuckooFilter(1 << 13), 20_000);
+        List<Spliterator<FilterEntry>> parts = new ArrayList<>();
+        splitAll(filter.spliterator(), parts);
+        assertTrue("parts " + parts.size(), parts.size() >= 4);
+
+        long count = 0;
+        double sum = 0;
+        int lastBucket = -1;
+        for (Spliterator<FilterEntry> part : parts) {
+            List<FilterEntry> entries = new ArrayList<>();
+            part.forEachRemaining(entries::add);
+            //前缀在前, 各部分的bucket区间依次递增且不重叠
+            for (FilterEntry e : entries) {
+                assertTrue(e.bucket() >= lastBucket);
+                lastBucket = e.bucket();
+                sum += e.value();
+            }
+            count += entries.size();
+        }
+        assertEquals(filter.size(), count);
+        assertEquals(20_000.0 * 19_999 / 2, sum, 0.0);
+    }
+
+    @Test
+    public void smallRangeDoesNotSplit() {
+        assertNull(filled(new CuckooFilter(1 << 10), 100).spliterator().trySplit());
+    }
+
+    @Test
+    public void doesNotSplitInsideBucket() {
+        CuckooFilter filter = filled(new CuckooFilter(1 << 12), 8000);
+        BucketTable table = filter.table();
+        int b = 0;
+        while (table.fingerprint(b, 1) == BucketTable.NULL_FINGERPRINT) {
+            b++;
+        }
+        assertNotNull(new EntrySpliterator(table, null, b, table.capacity()).trySplit());
+        //取走bucket b的第一个entry, 停在bucket中间
+        Spliterator<FilterEntry> spliterator = new EntrySpliterator(table, null, b, table.capacity());
+        long[] count = new long[1];
+        assertTrue(spliterator.tryAdvance(e -> count[0]++));
+        assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    public void tryAdvanceThenForEachRemaining() {
+        CuckooFilter filter = filled(new CuckooFilter(1 << 8), 800);
+        Spliterator<FilterEntry> spliterator = filter.spliterator();
+        long[] count = new long[1];
+        for (int i = 0; i < 37; i++) {
+            assertTrue(spliterator.tryAdvance(e -> count[0]++));
+        }
+        spliterator.forEachRemaining(e -> count[0]++);
+        assertEquals(filter.size(), count[0]);
+    }
+
+    @Test
+    public void parallelStreamMatchesSequential() {
+        CuckooFilter filter = filled(new CuckooFilter(1 << 13), 25_000);
+        assertEquals(filter.size(), filter.entries().parallel().count());
+        assertEquals(filter.entries().mapToDouble(FilterEntry::value).sum(),
+                filter.entries().parallel().mapToDouble(FilterEntry::value).sum(), 0.0);
+    }
+
+    @Test
+    public void stashIsScannedOnce() {
+        CuckooFilter filter = new CuckooFilter(1 << 11, InsertMode.BREADTH_FIRST);
+        for (long i = 0; filter.stash().size() == 0; i++) {
+            assertTrue(filter.insert(i, i));
+        }
+        List<Spliterator<FilterEntry>> parts = new ArrayList<>();
+        splitAll(filter.spliterator(), parts);
+        assertTrue(parts.size() >= 2);
+        long count = 0;
+        for (Spliterator<FilterEntry> part : parts) {
+            count += StreamSupport.stream(part, false).count();
+        }
+        assertEquals(filter.size(), count);
+    }
+
+    @Test
+    public void removeIfDropsMatchingEntries() {
+        CuckooFilter filter = filled(new CuckooFilter(1 << 10), 3000);
+        int size = filter.size();
+        long even = filter.entries().filter(e -> e.value() % 2 == 0).count();
+        assertEquals(even, filter.removeIf(e -> e.value() % 2 == 0));
+        assertEquals(size - even, filter.size());
+        assertEquals(0, filter.entries().filter(e -> e.value() % 2 == 0).count());
+        for (long i = 1; i < 3000; i += 2) {
+            assertTrue(filter.contains(i));
+        }
+    }
+
+    /**
+     * A semi-sorted table reorders a bucket on every write; removeIf must still
+     * remove exactly the matching entries.
+     */
+    @Test
+    public void removeIfOnReorderingTable() {
+        CuckooFilter filter = filled(new CuckooFilter(new SemiSortedBucketTable(1 << 10, 9)), 3000);
+        int size = filter.size();
+        long small = filter.entries().filter(e -> e.value() < 1000).count();
+        assertEquals(small, filter.removeIf(e -> e.value() < 1000));
+        assertEquals(size - small, filter.size());
+        assertNotNull(filter.entries().filter(e -> e.value() >= 1000).findAny().orElse(null));
+        assertEquals(0, filter.entries().filter(e -> e.value() < 1000).count());
+        for (long i = 1000; i < 3000; i++) {
+            assertTrue(filter.contains(i));
+        }
+    }
+}
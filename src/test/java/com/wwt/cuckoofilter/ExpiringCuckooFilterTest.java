@@ -0,0 +1,84 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 15:40
+ */
+public class ExpiringCuckooFilterTest {
+
+    @Test
+    public void keysExpireAfterEnoughRotations() {
+        ExpiringCuckooFilter filter = new ExpiringCuckooFilter(1 << 8, 3, 0, TimeUnit.NANOSECONDS, 0);
+        filter.insert("a", -1.0);
+        filter.rotate();
+        filter.insert("b", 2.0);
+        filter.rotate();
+        assertTrue(filter.contains("a"));
+        assertEquals(-1.0, filter.get("a"), 0.0);
+        assertEquals(2.0, filter.get("b"), 0.0);
+        //第三次轮换清掉"a"所在的一代
+        filter.rotate();
+        assertFalse(filter.contains("a"));
+        assertEquals(0.0, filter.get("a"), 0.0);
+        assertTrue(filter.contains("b"));
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    public void rotatesOnItemCount() {
+        ExpiringCuckooFilter filter = new ExpiringCuckooFilter(1 << 8, 2, 100);
+        for (long i = 0; i < 300; i++) {
+            assertTrue(filter.insert(i, i));
+        }
+        //第101个插入前才轮换: 当前一代和上一代各100个, 最早的100个已清掉
+        assertEquals(200, filter.size());
+        for (long i = 100; i < 300; i++) {
+            assertTrue(filter.contains(i));
+        }
+    }
+
+    @Test
+    public void rotatesEarlyWhenFull() {
+        ExpiringCuckooFilter filter = new ExpiringCuckooFilter(1 << 4, 3, 0, TimeUnit.NANOSECONDS, 0);
+        for (long i = 0; i < 200; i++) {
+            assertTrue(filter.insert(i, i));
+        }
+        for (long i = 190; i < 200; i++) {
+            assertTrue(filter.contains(i));
+        }
+        assertTrue(filter.size() <= 3 * 16 * BucketTable.BUCKET_SIZE);
+    }
+
+    @Test
+    public void rotatesOnTime() throws InterruptedException {
+        ExpiringCuckooFilter filter = new ExpiringCuckooFilter(1 << 8, 2, 20, TimeUnit.MILLISECONDS);
+        filter.insert("a", 1.0);
+        assertTrue(filter.contains("a"));
+        Thread.sleep(60);
+        assertFalse(filter.contains("a"));
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    public void deleteFindsKeysInOlderGenerations() {
+        ExpiringCuckooFilter filter = new ExpiringCuckooFilter(1 << 8, 3, 0, TimeUnit.NANOSECONDS, 0);
+        filter.insert("a", 1.0);
+        filter.rotate();
+        assertTrue(filter.delete("a"));
+        assertFalse(filter.contains("a"));
+        assertFalse(filter.delete("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void needsTwoGenerations() {
+        new ExpiringCuckooFilter(1 << 4, 1, 10);
+    }
+}
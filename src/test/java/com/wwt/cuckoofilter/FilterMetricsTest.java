@@ -0,0 +1,136 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 15:00
+ */
+public class FilterMetricsTest {
+
+    private static long sum(long[] bins) {
+        long n = 0;
+        for (long b : bins) {
+            n += b;
+        }
+        return n;
+    }
+
+    @Test
+    public void countsInsertOutcomes() {
+        CuckooFilter filter = new CuckooFilter(1 << 6);
+        long n = 0;
+        while (filter.insert(n, n)) {
+            n++;
+        }
+        FilterMetrics metrics = filter.metrics();
+        assertEquals(n, metrics.getInserts());
+        assertEquals(1, metrics.getFailedInserts());
+        assertEquals(0, metrics.getStashedInserts());
+        assertEquals(n, sum(metrics.getKickChainHistogram()));
+        //满了之后一定有插入踢过别的entry
+        assertTrue(metrics.getKickChainHistogram()[0] < n);
+    }
+
+    @Test
+    public void countsStashedInserts() {
+        CuckooFilter filter = new CuckooFilter(1 << 4, InsertMode.BREADTH_FIRST);
+        long n = 0;
+        while (filter.insert(n, n)) {
+            n++;
+        }
+        FilterMetrics metrics = filter.metrics();
+        assertEquals(Stash.STASH_SIZE, metrics.getStashedInserts());
+        assertEquals(n, metrics.getInserts());
+        assertEquals(n - Stash.STASH_SIZE, sum(metrics.getKickChainHistogram()));
+    }
+
+    @Test
+    public void occupancyAndLoadFactorFollowTheTable() {
+        CuckooFilter filter = new CuckooFilter(1 << 8);
+        for (long i = 0; i < 512; i++) {
+            filter.insert(i, i);
+        }
+        FilterMetrics metrics = filter.metrics();
+        assertEquals(1 << 8, metrics.getCapacity());
+        assertEquals(512, metrics.getSize());
+        assertEquals(0.5, metrics.getLoadFactor(), 0.0);
+        long[] occupancy = metrics.getBucketOccupancy();
+        assertEquals(BucketTable.BUCKET_SIZE + 1, occupancy.length);
+        assertEquals(1 << 8, sum(occupancy));
+        long slots = 0;
+        for (int i = 0; i < occupancy.length; i++) {
+            slots += i * occupancy[i];
+        }
+        assertEquals(512, slots);
+    }
+
+    @Test
+    public void samplesLatencyOfSomeOperations() {
+        CuckooFilter filter = new CuckooFilter(1 << 10);
+        for (long i = 0; i < 3000; i++) {
+            filter.insert(i, i);
+        }
+        for (int round = 0; round < 20; round++) {
+            for (long i = 0; i < 3000; i++) {
+                filter.contains(i);
+            }
+        }
+        FilterMetrics metrics = filter.metrics();
+        long sampled = sum(metrics.latencyHistogram(FilterMetrics.LOOKUP));
+        //60000次查询, 约1/64被计时
+        assertTrue("sampled " + sampled, sampled > 500 && sampled < 2000);
+        assertTrue(metrics.meanNanos(FilterMetrics.LOOKUP) > 0);
+        assertTrue(metrics.getLookupP99Nanos() > 0);
+        assertTrue(sum(metrics.latencyHistogram(FilterMetrics.INSERT)) > 0);
+        assertEquals(0, sum(metrics.latencyHistogram(FilterMetrics.DELETE)));
+    }
+
+    @Test
+    public void readOnlyViewTimesNothingUnlessAsked() throws IOException {
+        CuckooFilter filter = new CuckooFilter(1 << 8);
+        for (long i = 0; i < 500; i++) {
+            filter.insert(i, i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filter.writeTo(out);
+        CuckooFilter view = CuckooFilter.readFrom(ByteBuffer.wrap(out.toByteArray()));
+        FilterMetrics metrics = view.metrics();
+        assertFalse(metrics.isLatencySampling());
+        for (long i = 0; i < 10_000; i++) {
+            view.contains(i);
+        }
+        assertEquals(0, sum(metrics.latencyHistogram(FilterMetrics.LOOKUP)));
+
+        metrics.setLatencySampling(true);
+        for (long i = 0; i < 10_000; i++) {
+            view.contains(i);
+        }
+        assertTrue(sum(metrics.latencyHistogram(FilterMetrics.LOOKUP)) > 0);
+    }
+
+    @Test
+    public void registersOverJmx() throws JMException {
+        FilterMetrics metrics = new CuckooFilter(1 << 4).metrics();
+        ObjectName name = new ObjectName("com.wwt.cuckoofilter:type=CuckooFilter,name=" + ObjectName.quote("metrics-test"));
+        metrics.register("metrics-test");
+        try {
+            assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+            assertEquals(1 << 4, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Capacity"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
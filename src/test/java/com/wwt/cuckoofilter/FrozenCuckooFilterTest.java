@@ -0,0 +1,105 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 16:50
+ */
+public class FrozenCuckooFilterTest {
+
+    /**
+     * Fills {@code filter} until an insert fails, freezes it and checks that the
+     * frozen filter answers every stored key and as many absent keys exactly as
+     * the filter does.
+     */
+    private static FrozenCuckooFilter checkFreeze(CuckooFilter filter) {
+        long n = 0;
+        while (filter.insert(n, n % 7 - 3.5)) {
+            n++;
+        }
+        FrozenCuckooFilter frozen = filter.freeze();
+        assertEquals(filter.size(), frozen.size());
+        assertEquals(filter.table().fingerprintBits(), frozen.fingerprintBits());
+        for (long i = 0; i < 2 * n; i++) {
+            assertEquals("key " + i, filter.contains(i), frozen.contains(i));
+            assertEquals("key " + i, filter.get(i), frozen.get(i), 0.0);
+        }
+        return frozen;
+    }
+
+    @Test
+    public void answersAsTheHeapFilter() {
+        checkFreeze(new CuckooFilter(1 << 10));
+    }
+
+    @Test
+    public void answersAsTheBlockedFilter() {
+        checkFreeze(new CuckooFilter(new HeapBucketTable(1 << 10), InsertMode.RANDOM_WALK, BucketLayout.BLOCKED));
+    }
+
+    @Test
+    public void answersForEveryBucketSize() {
+        //12位: 一个bucket放不满64位, 读会跨word
+        for (int bucketSize : new int[]{2, 4, 8}) {
+            checkFreeze(new CuckooFilter(new PackedBucketTable(1 << 9, 12, null, bucketSize)));
+        }
+        //32位8个slot: 一个bucket要分四次比较
+        checkFreeze(new CuckooFilter(new PackedBucketTable(1 << 9, 32, null, 8)));
+        checkFreeze(new CuckooFilter(new PackedBucketTable(1 << 9, 20, null, 2)));
+    }
+
+    @Test
+    public void findsThirtyTwoBitFingerprintsWithTheTopBitSet() {
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 6, 32), InsertMode.RANDOM_WALK,
+                BucketLayout.SPREAD, new IdentityHash());
+        //最高位为1的fingerprint转成long时不能符号扩展
+        int[] fingerprints = {0x80000001, 0xFFFFFFFF, 0x7FFFFFFF, 0xC0DE0000};
+        for (int i = 0; i < fingerprints.length; i++) {
+            assertTrue(filter.insert(IdentityHash.key(fingerprints[i], 32, i), i + 1.0));
+        }
+        FrozenCuckooFilter frozen = filter.freeze();
+        for (int i = 0; i < fingerprints.length; i++) {
+            long key = IdentityHash.key(fingerprints[i], 32, i);
+            assertTrue(frozen.contains(key));
+            assertEquals(i + 1.0, frozen.get(key), 0.0);
+        }
+        assertFalse(frozen.contains(IdentityHash.key(0x80000002, 32, 0)));
+    }
+
+    @Test
+    public void keepsNoValuesWhenAllAreZero() {
+        CuckooFilter filter = new CuckooFilter(1 << 8);
+        for (long i = 0; i < 500; i++) {
+            filter.insert(i, 0.0);
+        }
+        FrozenCuckooFilter frozen = filter.freeze();
+        for (long i = 0; i < 500; i++) {
+            assertTrue(frozen.contains(i));
+            assertEquals(0.0, frozen.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void keepsTheStash() {
+        CuckooFilter filter = new CuckooFilter(1 << 6, InsertMode.BREADTH_FIRST);
+        checkFreeze(filter);
+        assertTrue(filter.stash().size() > 0);
+    }
+
+    @Test
+    public void ignoresLaterChangesToTheFilter() {
+        CuckooFilter filter = new CuckooFilter(1 << 8);
+        filter.insert("a", 1.0);
+        FrozenCuckooFilter frozen = filter.freeze();
+        filter.delete("a");
+        filter.insert("b", 2.0);
+        assertTrue(frozen.contains("a"));
+        assertEquals(1.0, frozen.get("a"), 0.0);
+        assertEquals(1, frozen.size());
+    }
+}
@@ -0,0 +1,74 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 11:20
+ */
+public class HashStrategyTest {
+
+    @Test
+    public void objectDispatchMatchesTypedHashes() {
+        HashStrategy murmur = HashStrategy.murmur(7);
+        byte[] bytes = "key".getBytes(StandardCharsets.UTF_8);
+        assertEquals(murmur.hash(42L), murmur.hash((Object) 42L));
+        assertEquals(murmur.hash(42L), murmur.hash((Object) 42));
+        assertEquals(murmur.hash("key"), murmur.hash((Object) "key"));
+        assertEquals(murmur.hash(bytes, 0, bytes.length), murmur.hash((Object) bytes));
+        assertEquals(murmur.hash(bytes, 0, bytes.length), murmur.hash((Object) ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void filtersHashWithTheirStrategy() {
+        CountingHash hash = new CountingHash();
+        ConcurrentCuckooFilter concurrent = new ConcurrentCuckooFilter(1 << 6, 4, hash);
+        ExpiringCuckooFilter expiring = new ExpiringCuckooFilter(1 << 6, 2, 0, TimeUnit.NANOSECONDS, 0, hash);
+        ScalableCuckooFilter scalable = new ScalableCuckooFilter(1 << 6, hash);
+
+        assertTrue(concurrent.insert("a", 1.0));
+        assertTrue(expiring.insert("a", 1.0));
+        assertTrue(scalable.insert("a", 1.0));
+        assertEquals(3, hash.calls);
+        assertTrue(concurrent.contains("a"));
+        assertTrue(expiring.contains("a"));
+        assertTrue(scalable.contains("a"));
+        assertEquals(6, hash.calls);
+    }
+
+    private static final class CountingHash extends HashStrategy {
+
+        private final HashStrategy murmur = HashStrategy.murmur(1);
+        private int calls;
+
+        @Override
+        public long hash(long key) {
+            this.calls++;
+            return this.murmur.hash(key);
+        }
+
+        @Override
+        public long hash(byte[] bytes, int offset, int length) {
+            this.calls++;
+            return this.murmur.hash(bytes, offset, length);
+        }
+
+        @Override
+        public long hash(CharSequence chars) {
+            this.calls++;
+            return this.murmur.hash(chars);
+        }
+
+        @Override
+        public long id() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.wwt.cuckoofilter;
+
+/**
+ * Hashes a {@code long} key to itself, so a test can pick the bucket (low bits)
+ * and the fingerprint (top bits) of every key.
+ *
+ * @Author: wwt
+ * @Date: 2026/10/19 14:50
+ */
+final class IdentityHash extends HashStrategy {
+
+    /**
+     * Returns the key landing in bucket {@code bucket} with {@code bits}-bit fingerprint {@code f}.
+     */
+    static long key(int f, int bits, int bucket) {
+        return (f & 0xFFFFFFFFL) << (64 - bits) | bucket;
+    }
+
+    @Override
+    public long hash(long key) {
+        return key;
+    }
+
+    @Override
+    public long hash(byte[] bytes, int offset, int length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long hash(CharSequence chars) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long id() {
+        return 0;
+    }
+}
@@ -0,0 +1,109 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 10:20
+ */
+public class KeyValueCuckooFilterTest {
+
+    @Test
+    public void roundTrip() {
+        KeyValueCuckooFilter kv = new KeyValueCuckooFilter(new CuckooFilter(1 << 10), 16);
+        for (long i = 0; i < 3000; i++) {
+            assertTrue(kv.insert(i, i + 1.0));
+        }
+        for (long i = 0; i < 3000; i++) {
+            Lookup lookup = kv.lookup(i);
+            assertEquals(Lookup.Status.FOUND, lookup.status());
+            assertEquals(i + 1.0, lookup.value(), 0.0);
+        }
+        for (long i = 0; i < 3000; i += 2) {
+            assertTrue(kv.delete(i));
+        }
+        for (long i = 1; i < 3000; i += 2) {
+            assertEquals(i + 1.0, kv.lookup(i).value(), 0.0);
+        }
+    }
+
+    @Test
+    public void zeroIsFoundNotAbsent() {
+        KeyValueCuckooFilter kv = new KeyValueCuckooFilter(new CuckooFilter(1 << 4), 8);
+        kv.insert("zero", 0.0);
+        assertEquals(Lookup.Status.FOUND, kv.lookup("zero").status());
+        assertEquals(Lookup.Status.ABSENT, new KeyValueCuckooFilter(new CuckooFilter(1 << 4), 8).lookup("zero").status());
+    }
+
+    @Test
+    public void negativeValues() {
+        KeyValueCuckooFilter kv = new KeyValueCuckooFilter(new CuckooFilter(1 << 10), 16);
+        for (long i = 0; i < 3000; i++) {
+            kv.insert(i, -5.0 - i);
+        }
+        for (long i = 0; i < 3000; i++) {
+            assertEquals(-5.0 - i, kv.lookup(i).value(), 0.0);
+        }
+    }
+
+    @Test
+    public void firstEntryOfGroupKeepsNegativeValue() {
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 4, 4));
+        KeyValueCuckooFilter kv = new KeyValueCuckooFilter(filter, 16);
+        //4位fingerprint, 16个bucket: 很快就有同一组的key
+        long a = 0;
+        long b = -1;
+        for (long i = 1; b < 0; i++) {
+            long ha = filter.hashStrategy().hash(a);
+            long hi = filter.hashStrategy().hash(i);
+            if (CuckooFilter.fingerprintOf(ha, 4) == CuckooFilter.fingerprintOf(hi, 4)
+                    && filter.index(ha) == filter.index(hi)) {
+                b = i;
+            }
+        }
+        kv.insert(a, -5.0);
+        kv.insert(b, 3.0);
+        assertEquals(1, kv.checkedEntries());
+        assertEquals(-5.0, kv.lookup(a).value(), 0.0);
+        assertEquals(3.0, kv.lookup(b).value(), 0.0);
+    }
+
+    @Test
+    public void negativeFingerprintsDoNotMergeGroups() {
+        //key即hash: 高32位是fingerprint, 低位是bucket
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 10, 32), InsertMode.RANDOM_WALK,
+                BucketLayout.SPREAD, new IdentityHash());
+        KeyValueCuckooFilter kv = new KeyValueCuckooFilter(filter, 16);
+        long f = 0x80000001L << 32;
+        kv.insert(f | 1, 1.0);
+        kv.insert(f | 1, 2.0);
+        assertEquals(1, kv.checkedEntries());
+        //同一fingerprint, 另一对bucket: 不冲突, 不应进同一组
+        assertTrue(filter.altIndex(1, 0x80000001) != 5);
+        kv.insert(f | 5, 3.0);
+        assertEquals(1, kv.checkedEntries());
+        assertEquals(3.0, kv.lookup(f | 5).value(), 0.0);
+    }
+
+    @Test
+    public void noCheckBitsReportsAmbiguity() {
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 4, 4));
+        KeyValueCuckooFilter kv = new KeyValueCuckooFilter(filter, 0);
+        int ambiguous = 0;
+        for (long i = 0; i < 40; i++) {
+            kv.insert(i, i);
+        }
+        for (long i = 0; i < 40; i++) {
+            Lookup lookup = kv.lookup(i);
+            if (lookup.status() == Lookup.Status.AMBIGUOUS) {
+                ambiguous++;
+            } else {
+                assertEquals(i, lookup.value(), 0.0);
+            }
+        }
+        assertTrue(ambiguous > 0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 12:20
+ */
+public class MappedBucketTableTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final double[] values = new double[500];
+
+    private Path filled() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("filter.bin");
+        try (CuckooFilter filter = CuckooFilter.create(file, 1 << 8)) {
+            for (long i = 0; i < 500; i++) {
+                assertTrue(filter.insert(i, -i));
+            }
+            //8位fingerprint会有冲突, 记下关闭前读到的值来比较
+            for (int i = 0; i < 500; i++) {
+                this.values[i] = filter.get((long) i);
+            }
+        }
+        return file;
+    }
+
+    private static void patch(Path file, int offset, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+
+    private static void assertRejected(Path file) {
+        try {
+            MappedBucketTable.open(file).close();
+            fail("Opened a corrupt table file");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void reopenKeepsEntries() throws IOException {
+        Path file = filled();
+        try (CuckooFilter filter = CuckooFilter.open(file)) {
+            assertEquals(500, filter.size());
+            for (int i = 0; i < 500; i++) {
+                assertTrue(filter.contains((long) i));
+                assertEquals(this.values[i], filter.get((long) i), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        Path file = filled();
+        long length;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            length = channel.size();
+            channel.truncate(length - 8);
+        }
+        assertRejected(file);
+        //拒绝时不能把文件又映射长了
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals(length - 8, channel.size());
+        }
+    }
+
+    @Test
+    public void rejectsNegativeLayout() throws IOException {
+        Path file = filled();
+        patch(file, 20, ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, -1));
+        assertRejected(file);
+    }
+
+    @Test
+    public void rejectsCapacityNotPowerOfTwo() throws IOException {
+        Path file = filled();
+        patch(file, 8, ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 3));
+        assertRejected(file);
+    }
+
+    @Test
+    public void rejectsSizeBeyondSlots() throws IOException {
+        Path file = filled();
+        patch(file, 24, ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, 1L << 32));
+        assertRejected(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createRejectsBadCapacity() throws IOException {
+        MappedBucketTable.create(folder.getRoot().toPath().resolve("bad.bin"), 3);
+    }
+}
@@ -0,0 +1,93 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 14:40
+ */
+public class MergeTest {
+
+    private static CuckooFilter filled(HashStrategy hashStrategy, long from, long to) {
+        CuckooFilter filter = new CuckooFilter(new HeapBucketTable(1 << 10), InsertMode.RANDOM_WALK,
+                BucketLayout.SPREAD, hashStrategy);
+        for (long i = from; i < to; i++) {
+            assertTrue(filter.insert(i, -i));
+        }
+        return filter;
+    }
+
+    @Test
+    public void mergeKeepsEveryKey() {
+        HashStrategy seeded = HashStrategy.murmur(7);
+        CuckooFilter a = filled(seeded, 0, 1000);
+        CuckooFilter b = filled(seeded, 1000, 2000);
+        assertTrue(a.merge(b));
+        assertEquals(2000, a.size());
+        for (long i = 0; i < 2000; i++) {
+            assertTrue(a.contains(i));
+        }
+        //b不变
+        assertEquals(1000, b.size());
+    }
+
+    @Test
+    public void mergeRejectsOtherHashStrategy() {
+        CuckooFilter a = filled(HashStrategy.murmur(), 0, 1000);
+        CuckooFilter b = filled(HashStrategy.murmur(7), 1000, 2000);
+        try {
+            a.merge(b);
+            fail("Merged filters filled under different hash strategies");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("hash strategy"));
+        }
+        assertEquals(1000, a.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsOtherCapacity() {
+        new CuckooFilter(1 << 10).merge(new CuckooFilter(1 << 9));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsItself() {
+        CuckooFilter filter = new CuckooFilter(1 << 4);
+        filter.merge(filter);
+    }
+
+    @Test
+    public void unionKeepsEveryKeyAndTheShardsStrategy() {
+        HashStrategy seeded = HashStrategy.murmur(7);
+        CuckooFilter res = CuckooFilter.union(filled(seeded, 0, 700), filled(seeded, 700, 1400),
+                filled(seeded, 1400, 2100));
+        assertEquals(7, res.hashStrategy().id());
+        assertEquals(2100, res.size());
+        for (long i = 0; i < 2100; i++) {
+            assertTrue(res.contains(i));
+        }
+    }
+
+    @Test
+    public void unionRejectsAMismatchedShard() {
+        HashStrategy seeded = HashStrategy.murmur(7);
+        try {
+            CuckooFilter.union(filled(seeded, 0, 100), filled(seeded, 100, 200), filled(HashStrategy.murmur(), 200, 300));
+            fail("United shards filled under different hash strategies");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("hash strategy"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unionFailsWhenShardsDoNotFit() {
+        CuckooFilter[] shards = new CuckooFilter[5];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = filled(HashStrategy.murmur(), i * 1000L, i * 1000L + 1000);
+        }
+        CuckooFilter.union(shards);
+    }
+}
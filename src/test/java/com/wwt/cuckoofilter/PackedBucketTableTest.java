@@ -0,0 +1,115 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 14:10
+ */
+public class PackedBucketTableTest {
+
+    @Test
+    public void slotsRoundTripAtEveryWidth() {
+        for (int bucketSize = 2; bucketSize <= 8; bucketSize <<= 1) {
+            for (int bits = 4; bits <= 32; bits++) {
+                PackedBucketTable table = new PackedBucketTable(1 << 4, bits, null, bucketSize);
+                long mask = (1L << bits) - 1;
+                //最高位也置上, 32位时是负数
+                for (int b = 0; b < 16; b++) {
+                    for (int s = 0; s < bucketSize; s++) {
+                        int f = (int) ((1L << (bits - 1) | b * bucketSize + s) & mask);
+                        assertTrue(table.add(b, f, b - s));
+                    }
+                    assertTrue(table.isFull(b));
+                }
+                for (int b = 0; b < 16; b++) {
+                    for (int s = 0; s < bucketSize; s++) {
+                        int f = (int) ((1L << (bits - 1) | b * bucketSize + s) & mask);
+                        assertEquals(f, table.fingerprint(b, s));
+                        assertEquals(s, table.indexOf(b, f));
+                        assertEquals(b - s, table.value(b, s), 0.0);
+                    }
+                }
+                assertEquals(16 * bucketSize, table.size());
+            }
+        }
+    }
+
+    @Test
+    public void codedValuesSitBesideFingerprints() {
+        PackedBucketTable table = new PackedBucketTable(1 << 4, 12, ValueCodec.fixedPoint(0, 10, 0.5));
+        for (int s = 0; s < 4; s++) {
+            table.add(3, 0xFFF - s, s * 2.5);
+        }
+        table.set(3, 1, 0x123, 10.0);
+        assertEquals(0xFFF, table.fingerprint(3, 0));
+        assertEquals(0x123, table.fingerprint(3, 1));
+        assertEquals(0xFFD, table.fingerprint(3, 2));
+        assertEquals(0.0, table.value(3, 0), 0.0);
+        assertEquals(10.0, table.value(3, 1), 0.0);
+        assertEquals(5.0, table.value(3, 2), 0.0);
+        assertTrue(table.delete(3, 0x123));
+        assertEquals(-1, table.indexOf(3, 0x123));
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    public void rejectedValueLeavesSlotUnchanged() {
+        PackedBucketTable table = new PackedBucketTable(1 << 4, 8, ValueCodec.dictionary(1.0, 2.0));
+        table.add(0, 7, 2.0);
+        try {
+            table.set(0, 0, 9, 3.0);
+            fail("Stored a value missing from the dictionary");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(7, table.fingerprint(0, 0));
+        assertEquals(2.0, table.value(0, 0), 0.0);
+    }
+
+    @Test
+    public void rejectedInsertLeavesFilterUnchanged() {
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 4, 8, ValueCodec.dictionary(1.0, 2.0)));
+        try {
+            filter.insert("x", 3.0);
+            fail("Inserted a value missing from the dictionary");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(0, filter.size());
+        assertFalse(filter.contains("x"));
+        assertEquals(0, filter.entries().count());
+    }
+
+    /**
+     * With both buckets full a breadth-first insert would move entries and, failing
+     * that, stash the value; an unencodable value must be rejected before either.
+     */
+    @Test
+    public void rejectedInsertIntoFullFilterMovesNothing() {
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 2, 8, ValueCodec.dictionary(1.0, 2.0)),
+                InsertMode.BREADTH_FIRST);
+        int n = 0;
+        while (filter.insert((long) n, 1.0 + (n & 1))) {
+            n++;
+        }
+        int size = filter.size();
+        long[] before = filter.entries().mapToLong(e -> (long) e.bucket() << 32 | e.fingerprint()).sorted().toArray();
+        try {
+            filter.insert(-1L, 3.0);
+            fail("Inserted a value missing from the dictionary");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(size, filter.size());
+        long[] after = filter.entries().mapToLong(e -> (long) e.bucket() << 32 | e.fingerprint()).sorted().toArray();
+        assertTrue(Arrays.equals(before, after));
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.contains(i));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 15:20
+ */
+public class ScalableCuckooFilterTest {
+
+    @Test
+    public void growsInsteadOfFailing() {
+        ScalableCuckooFilter filter = new ScalableCuckooFilter(1 << 4);
+        for (long i = 0; i < 5000; i++) {
+            assertTrue(filter.insert(i, -i));
+        }
+        assertTrue(filter.generations() > 1);
+        assertEquals(5000, filter.size());
+        for (long i = 0; i < 5000; i++) {
+            assertTrue(filter.contains(i));
+        }
+    }
+
+    @Test
+    public void getFindsValuesInOlderGenerations() {
+        //第二代几乎是空的, 新一代的误判不会盖住老一代的值
+        ScalableCuckooFilter filter = new ScalableCuckooFilter(1 << 10, HashStrategy.murmur(3));
+        filter.insert("old", -2.5);
+        filter.insert("zero", 0.0);
+        long n = 0;
+        while (filter.generations() == 1) {
+            filter.insert(n++, 1.0);
+        }
+        assertEquals(-2.5, filter.get("old"), 0.0);
+        assertEquals(0.0, filter.get("zero"), 0.0);
+        assertEquals(1.0, filter.get(n - 1), 0.0);
+    }
+
+    @Test
+    public void deleteSearchesEveryGeneration() {
+        ScalableCuckooFilter filter = new ScalableCuckooFilter(1 << 4);
+        for (long i = 0; i < 1000; i++) {
+            filter.insert(i, i);
+        }
+        for (long i = 0; i < 1000; i += 2) {
+            assertTrue(filter.delete(i));
+        }
+        assertEquals(500, filter.size());
+        for (long i = 1; i < 1000; i += 2) {
+            assertTrue(filter.contains(i));
+        }
+    }
+
+    /**
+     * A failed kick chain is walked back, so the filter a {@link ScalableCuckooFilter}
+     * grows away from still holds every key it took.
+     */
+    @Test
+    public void failedInsertRollsBackItsKickChain() {
+        CuckooFilter filter = new CuckooFilter(1 << 6);
+        long n = 0;
+        while (filter.insert(n, -n)) {
+            n++;
+        }
+        assertEquals(n, filter.size());
+        //再试几次: 另一条随机路径可能找到空位, 失败的那些不能改变表
+        long stored = n;
+        for (long k = n + 1; k < n + 21; k++) {
+            int size = filter.size();
+            if (filter.insert(k, 1.0)) {
+                stored++;
+            } else {
+                assertEquals(size, filter.size());
+            }
+        }
+        assertEquals(stored, filter.size());
+        assertEquals(stored, filter.entries().count());
+        for (long i = 0; i < n; i++) {
+            assertTrue(filter.contains(i));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 14:20
+ */
+public class SemiSortedBucketTableTest {
+
+    @Test
+    public void bucketStaysSortedWithValues() {
+        SemiSortedBucketTable table = new SemiSortedBucketTable(1 << 4, 12);
+        int[] fs = {0x9AB, 0x123, 0xF00, 0x456};
+        for (int f : fs) {
+            assertTrue(table.add(5, f, -f));
+        }
+        int prev = 0;
+        for (int s = 0; s < 4; s++) {
+            int f = table.fingerprint(5, s);
+            assertTrue(f > prev);
+            assertEquals(-f, table.value(5, s), 0.0);
+            prev = f;
+        }
+        assertTrue(table.delete(5, 0x456));
+        assertEquals(0, table.fingerprint(5, 0));
+        assertEquals(-0x9AB, table.get(5, 0x9AB), 0.0);
+    }
+
+    @Test
+    public void thirtyTwoBitFingerprintsSortUnsigned() {
+        SemiSortedBucketTable table = new SemiSortedBucketTable(1 << 4, 32);
+        int[] fs = {0x80000001, 0x7FFFFFFF, 0xFFFFFFFF, 1};
+        for (int f : fs) {
+            table.add(0, f, f);
+        }
+        assertEquals(1, table.fingerprint(0, 0));
+        assertEquals(0x7FFFFFFF, table.fingerprint(0, 1));
+        assertEquals(0x80000001, table.fingerprint(0, 2));
+        assertEquals(0xFFFFFFFF, table.fingerprint(0, 3));
+        for (int f : fs) {
+            assertEquals(f, table.get(0, f), 0.0);
+        }
+    }
+
+    @Test
+    public void codedValuesFollowTheirSlot() {
+        SemiSortedBucketTable table = new SemiSortedBucketTable(1 << 4, 8, ValueCodec.fixedPoint(0, 10, 0.5));
+        table.add(2, 200, 1.5);
+        table.add(2, 50, 9.0);
+        table.add(2, 120, 0.0);
+        assertEquals(9.0, table.get(2, 50), 0.0);
+        assertEquals(0.0, table.get(2, 120), 0.0);
+        assertEquals(1.5, table.get(2, 200), 0.0);
+    }
+
+    @Test
+    public void rejectedValueLeavesBucketUnchanged() {
+        SemiSortedBucketTable table = new SemiSortedBucketTable(1 << 4, 8, ValueCodec.dictionary(1.0, 2.0));
+        table.add(0, 90, 2.0);
+        table.add(0, 30, 1.0);
+        try {
+            table.add(0, 60, 3.0);
+            fail("Stored a value missing from the dictionary");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(2, table.size());
+        assertEquals(-1, table.indexOf(0, 60));
+        assertEquals(1.0, table.get(0, 30), 0.0);
+        assertEquals(2.0, table.get(0, 90), 0.0);
+    }
+
+    @Test
+    public void rejectedInsertKeepsExistingKeys() {
+        CuckooFilter filter = new CuckooFilter(new SemiSortedBucketTable(1 << 4, 8, ValueCodec.dictionary(1.0, 2.0)));
+        assertTrue(filter.insert("a", 1.0));
+        try {
+            filter.insert("x", 3.0);
+            fail("Inserted a value missing from the dictionary");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(1, filter.size());
+        assertEquals(1, filter.entries().count());
+        assertTrue(filter.contains("a"));
+        assertEquals(1.0, filter.get("a"), 0.0);
+    }
+}
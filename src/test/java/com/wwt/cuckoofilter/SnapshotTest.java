@@ -0,0 +1,88 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 11:00
+ */
+public class SnapshotTest {
+
+    private static byte[] snapshot(CuckooFilter filter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filter.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static CuckooFilter filled() {
+        CuckooFilter filter = new CuckooFilter(1 << 8);
+        for (long i = 0; i < 800; i++) {
+            filter.insert(i, -i);
+        }
+        return filter;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        CuckooFilter filter = filled();
+        byte[] bytes = snapshot(filter);
+        CuckooFilter copy = CuckooFilter.readFrom(new ByteArrayInputStream(bytes));
+        CuckooFilter view = CuckooFilter.readFrom(ByteBuffer.wrap(bytes));
+        assertEquals(filter.size(), copy.size());
+        assertEquals(filter.size(), view.size());
+        for (long i = 0; i < 800; i++) {
+            assertTrue(view.contains(i));
+            assertEquals(filter.get(i), copy.get(i), 0.0);
+            assertEquals(filter.get(i), view.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void bufferViewIsReadOnly() throws IOException {
+        byte[] bytes = snapshot(filled());
+        byte[] before = bytes.clone();
+        CuckooFilter view = CuckooFilter.readFrom(ByteBuffer.wrap(bytes));
+        try {
+            view.insert(1000L, 1.0);
+            fail("Inserted into a snapshot view");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            view.delete(1L);
+            fail("Deleted from a snapshot view");
+        } catch (UnsupportedOperationException expected) {
+        }
+        assertArrayEquals(before, bytes);
+        //缓冲区没变, 还能再加载一次
+        assertEquals(view.size(), CuckooFilter.readFrom(ByteBuffer.wrap(bytes)).size());
+    }
+
+    @Test
+    public void rejectsSizeBeyondSlots() throws IOException {
+        byte[] bytes = snapshot(filled());
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(32, (1L << 8) * BucketTable.BUCKET_SIZE + 1);
+        try {
+            CuckooFilter.readFrom(ByteBuffer.wrap(bytes));
+            fail("Accepted a size larger than the table");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedBuffer() throws IOException {
+        byte[] bytes = snapshot(filled());
+        CuckooFilter.readFrom(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 8)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 16:30
+ */
+public class StashTest {
+
+    private long n;
+
+    private CuckooFilter saturated() {
+        CuckooFilter filter = new CuckooFilter(1 << 6, InsertMode.BREADTH_FIRST);
+        this.n = 0;
+        while (filter.insert(this.n, -this.n - 1)) {
+            this.n++;
+        }
+        return filter;
+    }
+
+    @Test
+    public void overflowGoesToTheStash() {
+        CuckooFilter filter = saturated();
+        assertEquals(Stash.STASH_SIZE, filter.stash().size());
+        assertEquals(this.n, filter.size());
+        assertEquals(this.n, filter.entries().count());
+        //stash里的key也要能查到, 值不丢
+        for (int i = 0; i < filter.stash().size(); i++) {
+            assertTrue(filter.stash().value(i) < 0);
+        }
+        for (long i = 0; i < this.n; i++) {
+            assertTrue(filter.contains(i));
+        }
+    }
+
+    @Test
+    public void deletesDrainTheStashBackIntoTheTable() {
+        CuckooFilter filter = saturated();
+        long deleted = 0;
+        for (long i = 0; i < this.n && filter.stash().size() > 0; i += 2) {
+            assertTrue(filter.delete(i));
+            deleted++;
+        }
+        assertEquals(0, filter.stash().size());
+        assertEquals(this.n - deleted, filter.size());
+        for (long i = 1; i < this.n; i += 2) {
+            assertTrue(filter.contains(i));
+        }
+    }
+
+    @Test
+    public void stashedKeysCanBeDeleted() {
+        CuckooFilter filter = saturated();
+        int bucket = filter.stash().bucket(0);
+        int f = filter.stash().fingerprint(0);
+        //找出这个stash entry对应的key
+        long key = -1;
+        for (long i = 0; i < this.n && key < 0; i++) {
+            long h = filter.hashStrategy().hash(i);
+            int p1 = filter.index(h);
+            if (CuckooFilter.fingerprintOf(h, 8) == f && (p1 == bucket || filter.altIndex(p1, f) == bucket)) {
+                key = i;
+            }
+        }
+        assertTrue(filter.delete(key));
+        assertEquals(this.n - 1, filter.size());
+    }
+
+    @Test
+    public void clearEmptiesTheStash() {
+        CuckooFilter filter = saturated();
+        filter.clear();
+        assertEquals(0, filter.size());
+        assertEquals(0, filter.stash().size());
+        assertFalse(filter.contains(0L));
+    }
+
+    @Test
+    public void removesFromTheEnd() {
+        Stash stash = new Stash();
+        for (int i = 0; i < Stash.STASH_SIZE; i++) {
+            assertTrue(stash.add(i, i + 1, i));
+        }
+        assertFalse(stash.add(0, 1, 0));
+        assertTrue(stash.contains(3, 99, 4));
+        assertEquals(3.0, stash.get(3, 99, 4, Double.NaN), 0.0);
+        assertTrue(Double.isNaN(stash.get(5, 99, 4, Double.NaN)));
+        assertTrue(stash.delete(99, 3, 4));
+        assertEquals(Stash.STASH_SIZE - 1, stash.size());
+        //最后一个entry补到被删的位置
+        assertEquals(Stash.STASH_SIZE, stash.fingerprint(3));
+    }
+}
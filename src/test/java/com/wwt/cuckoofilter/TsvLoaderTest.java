@@ -0,0 +1,114 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 16:40
+ */
+public class TsvLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path write(String content) throws IOException {
+        Path file = this.folder.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Path keys(int n) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            sb.append("key").append(i).append('\t').append(i * 0.25 - 100).append('\n');
+        }
+        return write(sb.toString());
+    }
+
+    @Test
+    public void loadsEveryLine() throws IOException {
+        //32位fingerprint, 1万个key里几乎不会有误判把别的key的值读出来
+        CuckooFilter filter = new CuckooFilter(new PackedBucketTable(1 << 12, 32));
+        assertEquals(10000, TsvLoader.load(keys(10000), filter, 4));
+        assertEquals(10000, filter.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i * 0.25 - 100, filter.get("key" + i), 0.0);
+        }
+    }
+
+    @Test
+    public void loadsIntoConcurrentFilter() throws IOException {
+        ConcurrentCuckooFilter filter = new ConcurrentCuckooFilter(1 << 12);
+        assertEquals(10000, TsvLoader.load(keys(10000), filter, 4));
+        assertEquals(10000, filter.size());
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.contains("key" + i));
+        }
+    }
+
+    @Test
+    public void keysHashLikeStrings() throws IOException {
+        //非ASCII的key, CRLF换行, 空行, 最后一行没有换行
+        Path file = write("苹果\t1.5\r\n\nété\t-2\r\nlast\t3e2");
+        CuckooFilter filter = new CuckooFilter(1 << 8);
+        assertEquals(3, TsvLoader.load(file, filter));
+        assertEquals(1.5, filter.get("苹果"), 0.0);
+        assertEquals(-2.0, filter.get("été"), 0.0);
+        assertEquals(300.0, filter.get("last"), 0.0);
+        assertFalse(filter.contains("last\r"));
+    }
+
+    @Test
+    public void countsOnlyStoredEntries() throws IOException {
+        CuckooFilter filter = new CuckooFilter(1 << 4);
+        long inserted = TsvLoader.load(keys(1000), filter, 2);
+        assertTrue(inserted < 1000);
+        assertEquals(inserted, filter.size());
+    }
+
+    @Test
+    public void missingTabFailsTheLoad() throws IOException {
+        try {
+            TsvLoader.load(write("a\t1\nb 2\n"), new CuckooFilter(1 << 4));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Missing tab"));
+        }
+    }
+
+    @Test
+    public void badValueFailsTheLoad() throws IOException {
+        try {
+            TsvLoader.load(write("a\t1\nb\tx\n"), new CuckooFilter(1 << 4));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+    }
+
+    @Test
+    public void parsesLikeDoubleParseDouble() {
+        String[] values = {
+                "0", "-0", "1", "+7", "0.1", "-123.456", "3.14159265358979", "1234567890123456",
+                "0.00000000000000000000001", "1e10", "-2.5E-3", "NaN", "-Infinity", " 42 "
+        };
+        for (String value : values) {
+            ByteBuffer buffer = ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+            assertEquals(value, Double.parseDouble(value),
+                    TsvLoader.parseDouble(buffer, 0, buffer.limit()), 0.0);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.wwt.cuckoofilter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Author: wwt
+ * @Date: 2026/10/19 14:00
+ */
+public class ValueCodecTest {
+
+    private static void assertStable(ValueCodec codec, double value) {
+        long code = codec.encode(value);
+        assertTrue(code >= 0 && code < 1L << codec.bits());
+        assertEquals(code, codec.encode(codec.decode(code)));
+    }
+
+    @Test
+    public void float16RoundTrip() {
+        ValueCodec codec = ValueCodec.float16();
+        assertEquals(16, codec.bits());
+        for (double v : new double[]{0.0, 1.0, -2.5, 0.1, 65504.0, -65504.0, 1e-6, 3.14159}) {
+            assertStable(codec, v);
+            assertEquals(v, codec.decode(codec.encode(v)), Math.abs(v) / 1024 + 1e-7);
+        }
+        assertEquals(Double.POSITIVE_INFINITY, codec.decode(codec.encode(1e6)), 0.0);
+        assertTrue(Double.isNaN(codec.decode(codec.encode(Double.NaN))));
+    }
+
+    @Test
+    public void fixedPointRoundsAndClamps() {
+        ValueCodec codec = ValueCodec.fixedPoint(0, 100, 0.01);
+        assertEquals(14, codec.bits());
+        assertEquals(12.34, codec.decode(codec.encode(12.341)), 1e-9);
+        assertEquals(0.0, codec.decode(codec.encode(-5)), 0.0);
+        assertEquals(100.0, codec.decode(codec.encode(250)), 1e-9);
+        for (double v = 0; v <= 100; v += 0.37) {
+            assertStable(codec, v);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fixedPointRejectsEmptyRange() {
+        ValueCodec.fixedPoint(1, 0, 0.1);
+    }
+
+    @Test
+    public void dictionaryKeepsExactValues() {
+        ValueCodec codec = ValueCodec.dictionary(2.0, -1.0, 2.0, 0.5);
+        assertEquals(2, codec.bits());
+        for (double v : new double[]{-1.0, 0.5, 2.0}) {
+            assertStable(codec, v);
+            assertEquals(v, codec.decode(codec.encode(v)), 0.0);
+        }
+        assertEquals(1, ValueCodec.dictionary(7.0).bits());
+    }
+
+    @Test
+    public void dictionaryRejectsUnknownValues() {
+        ValueCodec codec = ValueCodec.dictionary(1.0, 2.0);
+        try {
+            codec.encode(3.0);
+            fail("Encoded a value missing from the dictionary");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("3.0"));
+        }
+    }
+}